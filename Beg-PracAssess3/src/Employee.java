@@ -7,6 +7,10 @@ public class Employee {
     private int id;
     private String lastName, position;
     private double salary;
+    // The totals the salary is kept in, null if it isnt kept in any
+    private PayrollTotals totals;
+    // The position the salary was added to the totals under, null until the salary is set
+    private String counted;
     
     /**
      * Constructs the Employee Object using the parameters
@@ -32,6 +36,17 @@ public class Employee {
         this(id, "", "", 0D);
     }
     
+    /**
+     * Constructs the Employee Object whose salary is kept in the totals
+     * 
+     * @param id        - The Employees ID
+     * @param totals    - The totals the salary is added to once it is set
+     */
+    public Employee(int id, PayrollTotals totals) {
+        this(id);
+        this.totals = totals;
+    }
+    
     /**
      * Constructs the Employee Object using default parameters
      */
@@ -90,6 +105,11 @@ public class Employee {
      * @param position  - The Position to set to
      */
     public void setPosition(String position) {
+        if (this.counted != null) { // Move the salary to the totals of the new position
+            totals.remove(this.counted, this.salary);
+            totals.add(position, this.salary);
+            this.counted = position;
+        }
         this.position = position;
     }
 
@@ -104,26 +124,36 @@ public class Employee {
     }
 
     /**
-     * Sets the Employees salary and updates the reports public variables
+     * Gets the Employees Salary without rounding
+     * 
+     * @return      - The Employees Salary
+     */
+    double getRawSalary() {
+        return this.salary;
+    }
+
+    /**
+     * Gets the position the salary was added to the totals under
+     * 
+     * @return      - The position, or null if the salary hasnt been set
+     */
+    String getCountedPosition() {
+        return this.counted;
+    }
+
+    /**
+     * Sets the Employees salary and updates the totals it is kept in
      * 
      * @param salary - The Employees salary
      */
     public void setSalary(double salary) {
-        // The values are minused to prevent extra values if the salary is changed
-        String p = this.getPosition();
-        if (p.equalsIgnoreCase("Manager")) { // Update the manager values
-            PayrollReport.manager -= this.salary;
-            PayrollReport.manager += salary;
-        } else if (p.equalsIgnoreCase("Sales")) { // Update the sales values
-            PayrollReport.sales -= this.salary;
-            PayrollReport.sales += salary;
-        } else if (p.equalsIgnoreCase("Administration")) { // Update the admin values
-            PayrollReport.admin -= this.salary;
-            PayrollReport.admin += salary;
+        if (totals != null) {
+            // The old salary is taken out to prevent extra values if the salary is changed
+            if (this.counted != null)
+                totals.remove(this.counted, this.salary);
+            totals.add(this.getPosition(), salary);
+            this.counted = this.getPosition();
         }
-        // Always update the total
-        PayrollReport.total -= this.salary;
-        PayrollReport.total += salary;
         this.salary = salary;
     }
     
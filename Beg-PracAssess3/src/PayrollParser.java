@@ -0,0 +1,536 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reads the employees file much faster than PayrollReport.loopContents() for
+ * very large files. The file is memory mapped and split into chunks, the lines
+ * of each chunk are counted in parallel so every chunk knows which line it
+ * starts on, and then each chunk parses the records (4 lines each) that start
+ * inside it, again in parallel. IDs and salaries are parsed straight from the
+ * bytes without making a String of the line.
+ *
+ * The chunks are then merged in order on the calling thread using the same
+ * Employee methods as loopContents(), so the employees list, the totals and
+ * the messages printed are exactly the same, including stopping at the first
+ * bad record.
+ *
+ * @author Lee Tzilantonis
+ */
+public class PayrollParser {
+
+    // Files smaller than this are parsed as a single chunk
+    public static final int MIN_CHUNK = 1 << 20;
+
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POW10 = new double[23];
+
+    // The largest mantissa that is exactly representable as a double
+    private static final long MAX_EXACT = 1L << 53;
+
+    static {
+        POW10[0] = 1D;
+        for (int i = 1; i < POW10.length; i++)
+            POW10[i] = POW10[i - 1] * 10D;
+    }
+
+    // Which problem ended a chunk early, matching the messages loopContents() prints
+    private static final int OK = 0, BAD_ID = 1, BAD_SALARY = 2;
+
+    /**
+     * Reads the file into PayrollReport.employees the same way as
+     * PayrollReport.loopContents(). Returns false without reading anything if
+     * the file cant be read this way (too big to map, or the default charset
+     * doesnt store the digits and new lines as single ASCII bytes), in which
+     * case loopContents() should be used instead
+     *
+     * @param path          - The location of the employees file
+     * @return              - Whether or not the file was read
+     * @throws IOException  - Thrown if the file cant be opened or read
+     */
+    public static boolean read(String path) throws IOException {
+        return read(path, PayrollReport.employees, PayrollReport.totals);
+    }
+
+    /**
+     * Reads the file into a list of employees the same way as
+     * PayrollReport.loopContents(), returning false without reading anything
+     * if the file cant be read this way
+     *
+     * @param path          - The location of the employees file
+     * @param into          - The list the employees are added to
+     * @param totals        - The totals the salaries are added to
+     * @return              - Whether or not the file was read
+     * @throws IOException  - Thrown if the file cant be opened or read
+     */
+    public static boolean read(String path, List<Employee> into, PayrollTotals totals) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        if (!isAsciiCompatible(charset))
+            return false;
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                return false;
+            if (size == 0)
+                return true; // Nothing to read, the same as an empty file for readLine()
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            merge(parse(map, charset), into, totals);
+            return true;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Parses every chunk of the mapped file on the fork join pool
+     *
+     * @param map       - The mapped file
+     * @param charset   - The charset the names are decoded with
+     * @return          - The parsed chunks in file order
+     */
+    private static Chunk[] parse(ByteBuffer map, Charset charset) {
+        int size = map.limit();
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        int chunks = (int) Math.max(1, Math.min(size / MIN_CHUNK, parallelism * 4L));
+        int[] starts = new int[chunks + 1];
+        for (int i = 0; i <= chunks; i++)
+            starts[i] = (int) ((long) size * i / chunks);
+        // First count the line breaks in each chunk so every chunk knows its first line number
+        List<ForkJoinTask<Long>> counts = new ArrayList<ForkJoinTask<Long>>();
+        for (int i = 0; i < chunks; i++)
+            counts.add(ForkJoinPool.commonPool().submit(new Count(map, starts[i], starts[i + 1])));
+        long[] lines = new long[chunks];
+        for (int i = 1; i < chunks; i++)
+            lines[i] = lines[i - 1] + counts.get(i - 1).join();
+        // Then parse the records that start in each chunk
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<ForkJoinTask<Chunk>>();
+        for (int i = 0; i < chunks; i++)
+            tasks.add(ForkJoinPool.commonPool().submit(new Chunk(map, charset, starts[i], starts[i + 1], lines[i])));
+        Chunk[] parsed = new Chunk[chunks];
+        for (int i = 0; i < chunks; i++)
+            parsed[i] = tasks.get(i).join();
+        return parsed;
+    }
+
+    /**
+     * Adds the parsed employees in file order, stopping at the first problem
+     * the same as loopContents() does
+     *
+     * @param chunks    - The parsed chunks in file order
+     * @param into      - The list the employees are added to
+     * @param totals    - The totals the salaries are added to
+     */
+    private static void merge(Chunk[] chunks, List<Employee> into, PayrollTotals totals) {
+        // Only a read into the loaded employees changes the current employee
+        boolean loaded = into == PayrollReport.employees;
+        for (Chunk c : chunks) {
+            for (int i = 0; i < c.count; i++) {
+                // The same calls as loopContents() so the totals add up in the same order
+                Employee e = new Employee(c.ids[i], totals);
+                e.setLastName(c.lastNames[i]);
+                e.setPosition(c.positions[i]);
+                e.setSalary(c.salaries[i]);
+                into.add(e);
+                if (loaded)
+                    PayrollReport.current = null;
+            }
+            if (c.problem == BAD_ID) {
+                System.out.println("Employee ID not number");
+                return;
+            }
+            if (c.partialLines > 0) {
+                // loopContents() leaves the unfinished employee as current
+                Employee e = new Employee(c.partialId, totals);
+                if (c.partialLines > 1)
+                    e.setLastName(c.partialLastName);
+                if (c.partialLines > 2)
+                    e.setPosition(c.partialPosition);
+                if (loaded)
+                    PayrollReport.current = e;
+            }
+            if (c.problem == BAD_SALARY) {
+                System.out.println("Employee Salary not double");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the charset stores the characters the parser looks for as
+     * the same single bytes as ASCII, and never uses those bytes inside other characters
+     *
+     * @param charset   - The charset to check
+     * @return          - Whether or not the charset can be parsed as bytes
+     */
+    static boolean isAsciiCompatible(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1) || charset.name().equals("windows-1252");
+    }
+
+    /**
+     * Finds where the line starting at the position ends
+     *
+     * @param b     - The mapped file
+     * @param pos   - The start of the line
+     * @return      - The position of the line break, or the end of the file
+     */
+    static int lineEnd(ByteBuffer b, int pos) {
+        int limit = b.limit();
+        while (pos < limit) {
+            byte c = b.get(pos);
+            if (c == '\n' || c == '\r')
+                return pos;
+            pos++;
+        }
+        return limit;
+    }
+
+    /**
+     * Finds where the next line starts after a line ending at the position,
+     * treating \r\n as a single line break like readLine() does
+     *
+     * @param b     - The mapped file
+     * @param end   - The end of the line
+     * @return      - The start of the next line, or the end of the file
+     */
+    static int nextLine(ByteBuffer b, int end) {
+        if (end >= b.limit())
+            return end;
+        if (b.get(end) == '\r' && end + 1 < b.limit() && b.get(end + 1) == '\n')
+            return end + 2;
+        return end + 1;
+    }
+
+    /**
+     * Parses an int the same way as Integer.parseInt(), only making a
+     * String for anything other than an optional sign and up to 9 digits
+     *
+     * @param b       - The file
+     * @param start   - The start of the line
+     * @param end     - The end of the line
+     * @param charset - The charset the file is decoded with
+     * @return        - The parsed int
+     * @throws NumberFormatException - Thrown if the line isnt an int
+     */
+    static int parseInt(ByteBuffer b, int start, int end, Charset charset) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (b.get(i) == '-' || b.get(i) == '+'))
+            negative = b.get(i++) == '-';
+        int digits = end - i;
+        if (digits < 1 || digits > 9)
+            return Integer.parseInt(decode(b, start, end, charset));
+        int value = 0;
+        for (; i < end; i++) {
+            int d = b.get(i) - '0';
+            if (d < 0 || d > 9)
+                return Integer.parseInt(decode(b, start, end, charset));
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a double the same way as Double.parseDouble(). Plain decimals
+     * whose digits fit exactly in a double are worked out from the bytes,
+     * dividing by an exact power of ten so the result is rounded the same,
+     * and anything else is made into a String and parsed
+     *
+     * @param b       - The file
+     * @param start   - The start of the line
+     * @param end     - The end of the line
+     * @param charset - The charset the file is decoded with
+     * @return        - The parsed double
+     * @throws NumberFormatException - Thrown if the line isnt a double
+     */
+    static double parseDouble(ByteBuffer b, int start, int end, Charset charset) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (b.get(i) == '-' || b.get(i) == '+'))
+            negative = b.get(i++) == '-';
+        long mantissa = 0;
+        int digits = 0, decimals = -1;
+        for (; i < end; i++) {
+            byte c = b.get(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            int d = c - '0';
+            if (d < 0 || d > 9 || mantissa > MAX_EXACT / 10)
+                return Double.parseDouble(decode(b, start, end, charset));
+            mantissa = mantissa * 10 + d;
+            digits++;
+            if (decimals >= 0)
+                decimals++;
+        }
+        if (digits == 0 || mantissa > MAX_EXACT || decimals >= POW10.length)
+            return Double.parseDouble(decode(b, start, end, charset));
+        double value = decimals > 0 ? mantissa / POW10[decimals] : (double) mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decodes the line into a String, the same as readLine() would
+     *
+     * @param b       - The file
+     * @param start   - The start of the line
+     * @param end     - The end of the line
+     * @param charset - The charset the file is decoded with
+     * @return        - The line
+     */
+    static String decode(ByteBuffer b, int start, int end, Charset charset) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer d = b.duplicate();
+        d.position(start);
+        d.get(bytes);
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Counts the line breaks in part of the file, where a \r followed by \n only counts once
+     */
+    private static class Count extends RecursiveTask<Long> {
+
+        // The version of the serialized form, as fork/join tasks are Serializable
+        private static final long serialVersionUID = 1L;
+
+        // The mapped file and the part of it being counted
+        private final ByteBuffer map;
+        private final int from, to;
+
+        /**
+         * Constructs the Count Object
+         *
+         * @param map   - The mapped file
+         * @param from  - The first position to count
+         * @param to    - The position after the last to count
+         */
+        private Count(ByteBuffer map, int from, int to) {
+            this.map = map;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            long count = 0;
+            int limit = map.limit();
+            for (int i = from; i < to; i++) {
+                byte c = map.get(i);
+                if (c == '\n')
+                    count++;
+                else if (c == '\r' && (i + 1 == limit || map.get(i + 1) != '\n'))
+                    count++; // A \r\n is counted at the \n, which may be in the next chunk
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Parses the records that start in part of the file
+     */
+    private static class Chunk extends RecursiveTask<Chunk> {
+
+        // The version of the serialized form, as fork/join tasks are Serializable
+        private static final long serialVersionUID = 1L;
+
+        // The mapped file, the charset the names are decoded with and the part being parsed
+        private final ByteBuffer map;
+        private final Charset charset;
+        private final int from, to;
+        // The line number the part starts in
+        private final long firstLine;
+
+        // The parsed employees
+        private int count;
+        private int[] ids = new int[16];
+        private String[] lastNames = new String[16];
+        private String[] positions = new String[16];
+        private double[] salaries = new double[16];
+
+        // What ended the chunk early, and the unfinished employee it was on if any
+        private int problem = OK;
+        private int partialLines;
+        private int partialId;
+        private String partialLastName, partialPosition;
+
+        // Reused to copy names out of the file, and the positions already decoded
+        private byte[] scratch = new byte[64];
+        private final List<byte[]> knownBytes = new ArrayList<byte[]>();
+        private final List<String> knownPositions = new ArrayList<String>();
+
+        /**
+         * Constructs the Chunk Object
+         *
+         * @param map       - The mapped file
+         * @param charset   - The charset the names are decoded with
+         * @param from      - The first position of the part
+         * @param to        - The position after the last of the part
+         * @param firstLine - The line number the part starts in
+         */
+        private Chunk(ByteBuffer map, Charset charset, int from, int to, long firstLine) {
+            this.map = map.duplicate();
+            this.charset = charset;
+            this.from = from;
+            this.to = to;
+            this.firstLine = firstLine;
+        }
+
+        @Override
+        protected Chunk compute() {
+            int limit = map.limit();
+            int pos = from;
+            long line = firstLine;
+            if (pos > 0) {
+                byte before = map.get(pos - 1);
+                boolean lineStart = before == '\n' || (before == '\r' && map.get(pos) != '\n');
+                if (!lineStart) { // Skip the rest of the line the chunk starts inside
+                    pos = nextLine(map, lineEnd(map, pos));
+                    line++;
+                }
+            }
+            // Skip to the first line of a record
+            while (line % 4 != 0 && pos < limit) {
+                pos = nextLine(map, lineEnd(map, pos));
+                line++;
+            }
+            // Parse every record that starts in the chunk, even if it ends past it
+            while (pos < to && pos < limit) {
+                int end = lineEnd(map, pos);
+                int id;
+                try {
+                    id = parseInt(map, pos, end, charset);
+                } catch (NumberFormatException e) {
+                    problem = BAD_ID;
+                    return this;
+                }
+                pos = nextLine(map, end);
+                if (pos >= limit) {
+                    partial(1, id, null, null);
+                    return this;
+                }
+                end = lineEnd(map, pos);
+                String lastName = decode(pos, end);
+                pos = nextLine(map, end);
+                if (pos >= limit) {
+                    partial(2, id, lastName, null);
+                    return this;
+                }
+                end = lineEnd(map, pos);
+                String position = position(pos, end);
+                pos = nextLine(map, end);
+                if (pos >= limit) {
+                    partial(3, id, lastName, position);
+                    return this;
+                }
+                end = lineEnd(map, pos);
+                double salary;
+                try {
+                    salary = parseDouble(map, pos, end, charset);
+                } catch (NumberFormatException e) {
+                    partial(3, id, lastName, position);
+                    problem = BAD_SALARY;
+                    return this;
+                }
+                pos = nextLine(map, end);
+                add(id, lastName, position, salary);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a parsed employee to the end of the chunk
+         *
+         * @param id        - The Employees ID
+         * @param lastName  - The Employees last name
+         * @param position  - The Employees position
+         * @param salary    - The Employees salary
+         */
+        private void add(int id, String lastName, String position, double salary) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                lastNames = Arrays.copyOf(lastNames, count * 2);
+                positions = Arrays.copyOf(positions, count * 2);
+                salaries = Arrays.copyOf(salaries, count * 2);
+            }
+            ids[count] = id;
+            lastNames[count] = lastName;
+            positions[count] = position;
+            salaries[count] = salary;
+            count++;
+        }
+
+        /**
+         * Remembers the unfinished employee the chunk stopped on
+         *
+         * @param lines     - How many lines of the employee were read
+         * @param id        - The Employees ID
+         * @param lastName  - The Employees last name
+         * @param position  - The Employees position
+         */
+        private void partial(int lines, int id, String lastName, String position) {
+            partialLines = lines;
+            partialId = id;
+            partialLastName = lastName;
+            partialPosition = position;
+        }
+
+        /**
+         * Gets the position on the line, reusing the same String for positions
+         * that have already been seen
+         *
+         * @param start - The start of the line
+         * @param end   - The end of the line
+         * @return      - The position
+         */
+        private String position(int start, int end) {
+            int length = end - start;
+            for (int k = 0; k < knownBytes.size(); k++) {
+                byte[] known = knownBytes.get(k);
+                if (known.length != length)
+                    continue;
+                int j = 0;
+                while (j < length && known[j] == map.get(start + j))
+                    j++;
+                if (j == length)
+                    return knownPositions.get(k);
+            }
+            String position = decode(start, end);
+            if (knownBytes.size() < 32) { // There are only a few positions
+                knownBytes.add(Arrays.copyOf(scratch, length));
+                knownPositions.add(position);
+            }
+            return position;
+        }
+
+        /**
+         * Decodes the line into a String, the same as readLine() would
+         *
+         * @param start - The start of the line
+         * @param end   - The end of the line
+         * @return      - The line
+         */
+        private String decode(int start, int end) {
+            int length = end - start;
+            if (scratch.length < length)
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            map.position(start);
+            map.get(scratch, 0, length);
+            return new String(scratch, 0, length, charset);
+        }
+    }
+
+}
@@ -6,8 +6,11 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import javax.swing.JOptionPane;
 import javax.swing.JTextArea;
 
@@ -25,20 +28,49 @@ public class PayrollReport {
     public static final String FILE = "Employees.txt";
     // The location for the OUTPUT file
     public static final String OUTPUT = "PayrollReport.txt";
+    // The location for the detail report, without the extension of its format
+    public static final String DETAIL = "PayrollDetail";
     
     // Public reader objects for multiple methods to access
     public static FileReader fr;
     public static BufferedReader br;
     
-    // Public variables that are changed as employees are changed
-    public static double manager, sales, admin, total;
+    // The totals for every position, changed as employees are changed
+    public static final PayrollTotals totals = new PayrollTotals();
+    // Whether the report ends with a breakdown of every position, only when run with --breakdown
+    public static boolean breakdown = false;
     
     /**
-     * The main method only calls on other methods.
+     * The main method only calls on other methods. Running with --watch keeps
+     * OUTPUT up to date whenever FILE changes until the program is stopped, and
+     * running with --detail and a format (text, csv or json) writes DETAIL.
+     * Adding --breakdown to the end of any of these adds the lowest, highest
+     * and average salary of every position to OUTPUT.
      * 
      * @param args  - Command line arguments if any
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[args.length - 1].equals("--breakdown")) {
+            breakdown = true;
+            args = Arrays.copyOf(args, args.length - 1);
+        }
+        if (args.length > 0 && args[0].equals("--watch")) {
+            // Keep the report up to date as the file changes instead of showing it
+            try {
+                new PayrollWatcher(FILE).watch();
+            } catch (IOException e) {
+                System.out.println("Error watching " + FILE + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                System.out.println("Stopped watching " + FILE);
+            }
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--detail")) {
+            // Write a row for every employee instead of showing the summary
+            readFile();
+            writeDetail(args[1]);
+            return;
+        }
         readFile();
         displayAll();
         displayTotal();
@@ -49,18 +81,49 @@ public class PayrollReport {
      * Reads the FILE and outputs the employees into the employees list
      */
     public static void readFile() {
+        readFile(FILE);
+    }
+    
+    /**
+     * Reads an employees file, either the text or the binary format, and
+     * outputs the employees into the employees list
+     * 
+     * @param path  - The location of the file
+     */
+    public static void readFile(String path) {
+        readFile(path, employees, totals);
+    }
+    
+    /**
+     * Reads an employees file, either the text or the binary format, and
+     * outputs the employees into a list of employees
+     * 
+     * @param path      - The location of the file
+     * @param into      - The list the employees are added to
+     * @param totals    - The totals the salaries are added to
+     */
+    public static void readFile(String path, List<Employee> into, PayrollTotals totals) {
         // Ingore previous file readers and close them.
         closeReaders();
         try {
+            // Load the binary format with bulk reads if the file is in it
+            if (PayrollStore.read(path, into, totals))
+                return;
+            // Parse the file in parallel from memory if possible, which gives the same results
+            if (PayrollParser.read(path, into, totals))
+                return;
             // Initialising the reader Objects
-            fr = new FileReader(FILE);
+            fr = new FileReader(path);
             br = new BufferedReader(fr);
             // Read the contents of the file (or throws IOException)
-            loopContents();
+            loopContents(into, totals);
         } catch (FileNotFoundException e) {
-            System.out.println(FILE + " file not found");
+            System.out.println(path + " file not found");
+        } catch (NoSuchFileException e) {
+            // Thrown instead of FileNotFoundException when the file is opened as a channel
+            System.out.println(path + " file not found");
         } catch (IOException e) {
-            // The IOException caught here is actually onyl thrown in the loopContents() method
+            // The IOException caught here is only thrown while the file is being read
             System.out.println("IOException when reading files");
         } finally { // Executed even if there is an Exception
             closeReaders();
@@ -73,6 +136,18 @@ public class PayrollReport {
      * @throws IOException  - Thrown if the file reading encounters an IOException
      */
     public static void loopContents() throws IOException {
+        loopContents(employees, totals);
+    }
+    
+    /**
+     * Loops through the contents of the open BufferedReader and saves data
+     * into a list of employees
+     * 
+     * @param into          - The list the employees are added to
+     * @param totals        - The totals the salaries are added to
+     * @throws IOException  - Thrown if the file reading encounters an IOException
+     */
+    public static void loopContents(List<Employee> into, PayrollTotals totals) throws IOException {
         if (fr == null || br == null) { // Cant read anything if the readers are null
             System.out.println("loopContents call when readers are null");
             return; // No need to continue, the program will display no results
@@ -87,7 +162,7 @@ public class PayrollReport {
             // 1: id, 2: lastName, 3: position, 0: salary
             if (data == 1) { // This is the line for the ID (also the first for another Employee Obnject)
                 try {
-                    current = new Employee(Integer.parseInt(line));
+                    current = new Employee(Integer.parseInt(line), totals);
                 } catch (NumberFormatException e) {
                     // The text on the line isnt an Integer
                     System.out.println("Employee ID not number");
@@ -113,7 +188,7 @@ public class PayrollReport {
                     }
                     // Because its the last variable for the employee, the
                     // Employee Object isnow built and can be added to the list
-                    employees.add(current);
+                    into.add(current);
                     // The current is set to null to prevent any unknown errors occuring
                     current = null;
                 }
@@ -144,14 +219,17 @@ public class PayrollReport {
     public static void displayTotal() {
         // Using StringBuilder because tis efficient
         StringBuilder b = new StringBuilder("PAYROLL SUMMARY\n\n");
-        b.append("Managers\tSales\tAdmin\n");
-        b.append("$");
-        // Always rounding the values only when displaying them for maximum accuracy when calculating
-        b.append(round(manager));
-        b.append("\t$");
-        b.append(round(sales));
-        b.append("\t$");
-        b.append(round(admin));
+        List<PayrollTotals.Position> positions = summaryPositions();
+        for (int i = 0; i < positions.size(); i++) { // One column for each position
+            b.append(i == 0 ? "" : "\t");
+            b.append(positions.get(i).getShortLabel());
+        }
+        b.append("\n");
+        for (int i = 0; i < positions.size(); i++) {
+            b.append(i == 0 ? "$" : "\t$");
+            // Always rounding the values only when displaying them for maximum accuracy when calculating
+            b.append(round(positions.get(i).getSum()));
+        }
         // JTextArea fixes the \t problem, i left the background white for simplicity
         JOptionPane.showMessageDialog(null, new JTextArea(b.toString()));
     }
@@ -164,6 +242,17 @@ public class PayrollReport {
             System.out.println("Cannot create report with no employees");
             return; // Could be replaced with an else but then the indentation would be too much
         }
+        writeReport();
+        // Notify the user that the OUTPUT file has been created as a full report
+        JOptionPane.showMessageDialog(null, OUTPUT + " has been created with the full report");
+    }
+    
+    /**
+     * Writes the full report on the values set to the OUTPUT file
+     * 
+     * @return      - Whether or not the report was written
+     */
+    public static boolean writeReport() {
         // Initialise to null to allow checking in finally
         FileWriter fw = null;
         BufferedWriter bw = null;
@@ -174,16 +263,27 @@ public class PayrollReport {
             bw = new BufferedWriter(fw);
             pw = new PrintWriter(bw);
             // Print the report line by line (rounding all values)
-            pw.println("Total payroll $" + round(total));
+            pw.println("Total payroll $" + round(totals.getTotal()));
             // Average pay is never stored because calculating each time its updated
-            pw.println("Average pay $" + round(total / employees.size()));
+            pw.println("Average pay $" + round(totals.getTotal() / employees.size()));
             pw.println();
             pw.println("Total pay for:");
-            pw.println("Managers $" + round(manager));
-            pw.println("Sales Staff $" + round(sales));
-            pw.println("Admin Staff $" + round(admin));
+            List<PayrollTotals.Position> positions = summaryPositions();
+            for (PayrollTotals.Position p : positions)
+                pw.println(p.getLabel() + " $" + round(p.getSum()));
+            if (breakdown) {
+                pw.println();
+                pw.println("Breakdown by position:");
+                totals.refresh(employees); // Make sure the lowest and highest are up to date
+                for (PayrollTotals.Position p : totals.getPositions()) {
+                    pw.println(p.getLabel() + ": " + p.getCount() + " employees, lowest $" + round(p.getMin())
+                            + ", highest $" + round(p.getMax()) + ", average $" + round(p.getMean()));
+                }
+            }
+            return !pw.checkError(); // PrintWriter hides errors until they are checked
         } catch (IOException e) {
             System.out.println("Error writing to file " + OUTPUT);
+            return false;
         } finally {
             try {
                 if (pw != null)
@@ -196,8 +296,53 @@ public class PayrollReport {
                 System.out.println("Error closing writing streams");
             }
         }
-        // Notify the user that the OUTPUT file has been created as a full report
-        JOptionPane.showMessageDialog(null, OUTPUT + " has been created with the full report");
+    }
+    
+    /**
+     * Writes a report with a row for every employee to the DETAIL file
+     * 
+     * @param format    - The format of the report: text, csv or json
+     * @return          - Whether or not the report was written
+     */
+    public static boolean writeDetail(String format) {
+        if (employees.isEmpty()) {
+            System.out.println("Cannot create report with no employees");
+            return false;
+        }
+        PayrollReportWriter.Format f;
+        try {
+            f = PayrollReportWriter.Format.valueOf(format.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown report format " + format);
+            return false;
+        }
+        String path = DETAIL + f.getExtension();
+        try {
+            long bytes = new PayrollReportWriter(f).write(employees, path);
+            System.out.println(path + " has been created with " + employees.size() + " employees (" + bytes + " bytes)");
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing to file " + path);
+            return false;
+        }
+    }
+    
+    /**
+     * Gets the positions shown in the summaries, the original positions are
+     * always shown even if no one has them
+     * 
+     * @return      - The positions to show
+     */
+    public static List<PayrollTotals.Position> summaryPositions() {
+        List<PayrollTotals.Position> list = new ArrayList<PayrollTotals.Position>();
+        for (String[] label : PayrollTotals.LABELS) {
+            PayrollTotals.Position p = totals.get(label[0]);
+            list.add(p != null ? p : PayrollTotals.empty(label[0]));
+        }
+        for (PayrollTotals.Position p : totals.getPositions())
+            if (!list.contains(p))
+                list.add(p);
+        return list;
     }
     
     /**
@@ -0,0 +1,419 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a report with a row for every employee as text, CSV or JSON. The
+ * report is written through one small char buffer and one byte buffer that
+ * are reused for every row and every report, encoded by a single
+ * CharsetEncoder and written straight to a FileChannel. Numbers are written
+ * digit by digit and names are copied straight into the char buffer (escaped
+ * for CSV and JSON when needed), so no String is made for a row and the memory used stays
+ * the same however many employees there are.
+ *
+ * Salaries are written in cents with 2 decimal places. Each Format is the
+ * template for its header, rows and footer.
+ *
+ * @author Lee Tzilantonis
+ */
+public class PayrollReportWriter {
+
+    // The size of the buffers in characters and bytes
+    public static final int BUFFER_SIZE = 8192;
+
+    // The new line used by the text report, the same as PrintWriter.println()
+    private static final String LINE = System.lineSeparator();
+
+    /**
+     * The formats the report can be written in
+     */
+    public enum Format {
+
+        TEXT(".txt") {
+            @Override
+            void header(PayrollReportWriter w) throws IOException {
+                w.put("EMPLOYEE DETAIL REPORT").put(LINE).put(LINE);
+            }
+
+            @Override
+            void row(PayrollReportWriter w, Employee e, long cents, boolean first) throws IOException {
+                // The same as Employee.toString() but always with 2 decimal places
+                w.put("ID: ").putLong(e.getId()).put(", Last: ").put(e.getLastName());
+                w.put(" (").put(e.getPosition()).put("), Salary $").putCents(cents).put(LINE);
+            }
+
+            @Override
+            void footer(PayrollReportWriter w, long count, long total) throws IOException {
+                w.put(LINE).put("Employees ").putLong(count).put(LINE);
+                w.put("Total payroll $").putCents(total).put(LINE);
+            }
+        },
+
+        CSV(".csv") {
+            @Override
+            void header(PayrollReportWriter w) throws IOException {
+                w.put("id,lastName,position,salary\r\n");
+            }
+
+            @Override
+            void row(PayrollReportWriter w, Employee e, long cents, boolean first) throws IOException {
+                w.putLong(e.getId()).put(',').putCsv(e.getLastName()).put(',').putCsv(e.getPosition());
+                w.put(',').putCents(cents).put("\r\n");
+            }
+
+            @Override
+            void footer(PayrollReportWriter w, long count, long total) {
+                // A CSV file is only the rows, so the totals are left to whatever reads it
+            }
+        },
+
+        JSON(".json") {
+            @Override
+            void header(PayrollReportWriter w) throws IOException {
+                w.put("{\"employees\":[");
+            }
+
+            @Override
+            void row(PayrollReportWriter w, Employee e, long cents, boolean first) throws IOException {
+                if (!first)
+                    w.put(',');
+                w.put("\n{\"id\":").putLong(e.getId()).put(",\"lastName\":").putJson(e.getLastName());
+                w.put(",\"position\":").putJson(e.getPosition()).put(",\"salary\":").putCents(cents).put('}');
+            }
+
+            @Override
+            void footer(PayrollReportWriter w, long count, long total) throws IOException {
+                w.put("\n],\"count\":").putLong(count).put(",\"total\":").putCents(total).put("}\n");
+            }
+        };
+
+        // The file extension of the format
+        private final String extension;
+
+        /**
+         * Constructs the Format
+         *
+         * @param extension - The file extension of the format
+         */
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Gets the file extension of the format
+         *
+         * @return  - The file extension, including the dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Writes what comes before the first row
+         *
+         * @param w             - The writer
+         * @throws IOException  - Thrown if the report cant be written
+         */
+        abstract void header(PayrollReportWriter w) throws IOException;
+
+        /**
+         * Writes the row of an employee
+         *
+         * @param w             - The writer
+         * @param e             - The employee
+         * @param cents         - The employees salary in cents
+         * @param first         - Whether or not this is the first row
+         * @throws IOException  - Thrown if the report cant be written
+         */
+        abstract void row(PayrollReportWriter w, Employee e, long cents, boolean first) throws IOException;
+
+        /**
+         * Writes what comes after the last row
+         *
+         * @param w             - The writer
+         * @param count         - The amount of employees written
+         * @param total         - The total of the salaries in cents
+         * @throws IOException  - Thrown if the report cant be written
+         */
+        abstract void footer(PayrollReportWriter w, long count, long total) throws IOException;
+    }
+
+    // The format reports are written in
+    private final Format format;
+    // The encoder and buffers reused for every report
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    // Heap buffers so the encoder can use its fast path over the backing arrays
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    // Used to turn numbers into digits, which come out last digit first
+    private final char[] digits = new char[20];
+
+    // The file being written and how many bytes have been written to it
+    private FileChannel channel;
+    private long written;
+
+    /**
+     * Constructs the PayrollReportWriter Object that writes UTF-8
+     *
+     * @param format    - The format reports are written in
+     */
+    public PayrollReportWriter(Format format) {
+        this(format, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Constructs the PayrollReportWriter Object
+     *
+     * @param format    - The format reports are written in
+     * @param charset   - The charset reports are written in
+     */
+    public PayrollReportWriter(Format format, Charset charset) {
+        this.format = format;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Gets the format reports are written in
+     *
+     * @return  - The format
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Writes a report of the employees to a file, replacing it if it exists
+     *
+     * @param list          - The employees, in the order they are written
+     * @param path          - The location of the file
+     * @return              - The amount of bytes written
+     * @throws IOException  - Thrown if the file cant be written
+     */
+    public long write(List<Employee> list, String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            encoder.reset();
+            chars.clear();
+            bytes.clear();
+            written = 0;
+            long count = 0, total = 0;
+            format.header(this);
+            for (Employee e : list) {
+                long cents = Math.round(e.getRawSalary() * 100D);
+                format.row(this, e, cents, count == 0);
+                count++;
+                total += cents;
+            }
+            format.footer(this, count, total);
+            finish();
+            return written;
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Adds a character to the report
+     *
+     * @param c             - The character
+     * @return              - This writer
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private PayrollReportWriter put(char c) throws IOException {
+        if (!chars.hasRemaining())
+            encode(false);
+        chars.put(c);
+        return this;
+    }
+
+    /**
+     * Adds text to the report as it is
+     *
+     * @param s             - The text, nothing is added if it is null
+     * @return              - This writer
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private PayrollReportWriter put(String s) throws IOException {
+        return s == null ? this : put(s, 0, s.length());
+    }
+
+    /**
+     * Adds part of some text to the report as it is
+     *
+     * @param s             - The text
+     * @param from          - The first character to add
+     * @param to            - The character after the last one to add
+     * @return              - This writer
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private PayrollReportWriter put(String s, int from, int to) throws IOException {
+        while (from < to) { // Copy as much as fits each time
+            if (!chars.hasRemaining())
+                encode(false);
+            int n = Math.min(chars.remaining(), to - from);
+            chars.put(s, from, from + n);
+            from += n;
+        }
+        return this;
+    }
+
+    /**
+     * Adds a number to the report
+     *
+     * @param n             - The number
+     * @return              - This writer
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private PayrollReportWriter putLong(long n) throws IOException {
+        if (n < 0)
+            put('-');
+        int i = 0;
+        do { // The remainder is negative for negative numbers, so Long.MIN_VALUE works too
+            int d = (int) (n % 10);
+            digits[i++] = (char) ('0' + (d < 0 ? -d : d));
+            n /= 10;
+        } while (n != 0);
+        while (i > 0)
+            put(digits[--i]);
+        return this;
+    }
+
+    /**
+     * Adds an amount of cents to the report as dollars with 2 decimal places
+     *
+     * @param cents         - The amount in cents
+     * @return              - This writer
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private PayrollReportWriter putCents(long cents) throws IOException {
+        if (cents < 0)
+            put('-');
+        long dollars = Math.abs(cents / 100);
+        int c = (int) Math.abs(cents % 100);
+        return putLong(dollars).put('.').put((char) ('0' + c / 10)).put((char) ('0' + c % 10));
+    }
+
+    /**
+     * Adds a CSV field, quoted if it has a comma, quote or new line in it
+     *
+     * @param s             - The field, null is written as empty
+     * @return              - This writer
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private PayrollReportWriter putCsv(String s) throws IOException {
+        if (s == null)
+            return this;
+        int length = s.length();
+        boolean quote = false;
+        for (int i = 0; i < length && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote)
+            return put(s); // Copied in one go
+        put('"');
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '"')
+                put('"'); // Quotes are doubled inside a quoted field
+            put(c);
+        }
+        return put('"');
+    }
+
+    /**
+     * Adds a JSON string, escaping quotes, backslashes and control characters
+     *
+     * @param s             - The string, null is written as null
+     * @return              - This writer
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private PayrollReportWriter putJson(String s) throws IOException {
+        if (s == null)
+            return put("null");
+        put('"');
+        int length = s.length();
+        int i = 0;
+        while (i < length && s.charAt(i) >= 0x20 && s.charAt(i) != '"' && s.charAt(i) != '\\')
+            i++;
+        if (i == length) // Nothing needs escaping so it is copied in one go
+            return put(s).put('"');
+        put(s, 0, i);
+        for (; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\').put(c);
+            } else if (c == '\n') {
+                put("\\n");
+            } else if (c == '\r') {
+                put("\\r");
+            } else if (c == '\t') {
+                put("\\t");
+            } else if (c < 0x20) {
+                put("\\u00").put(Character.forDigit(c >> 4, 16)).put(Character.forDigit(c & 0xf, 16));
+            } else {
+                put(c);
+            }
+        }
+        return put('"');
+    }
+
+    /**
+     * Encodes the characters in the char buffer, writing the byte buffer to
+     * the file whenever it fills up
+     *
+     * @param end           - Whether or not there are no more characters to come
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private void encode(boolean end) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, end);
+            if (result.isOverflow())
+                drain();
+            else if (result.isError())
+                result.throwException();
+            else
+                break; // Everything was encoded, apart from half a surrogate pair if the buffer split one
+        }
+        chars.compact();
+    }
+
+    /**
+     * Encodes whatever is left and writes it all to the file
+     *
+     * @throws IOException  - Thrown if the report cant be written
+     */
+    private void finish() throws IOException {
+        encode(true);
+        while (encoder.flush(bytes).isOverflow())
+            drain();
+        drain();
+    }
+
+    /**
+     * Writes the byte buffer to the file and empties it
+     *
+     * @throws IOException  - Thrown if the file cant be written
+     */
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining())
+            written += channel.write(bytes);
+        bytes.clear();
+    }
+
+}
@@ -0,0 +1,396 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores employees in a compact binary format that loads much faster than the
+ * 4 lines per employee text format. The employees are stored as columns
+ * instead of records:
+ *
+ *   MAGIC, VERSION, employee count
+ *   last name dictionary: entry count, the byte length of each entry, the UTF-8 bytes
+ *   position dictionary: the same as the last names
+ *   ID column: an int for every employee
+ *   last name column: the dictionary index (int) for every employee
+ *   position column: the dictionary index (int) for every employee
+ *   salary column: the salary in cents (long) for every employee
+ *
+ * Each part is read with a single bulk read from a FileChannel and copied
+ * into an array at once, so there is no parsing of text. Last names and
+ * positions that repeat are only stored (and loaded) once.
+ *
+ * Salaries are stored in whole cents, so a salary with more than 2 decimal
+ * places is rounded when it is converted, the same as getSalary() shows it.
+ *
+ * Running the main method converts between the formats, in whichever
+ * direction the first file needs.
+ *
+ * @author Lee Tzilantonis
+ */
+public class PayrollStore {
+
+    // The first 4 bytes of every binary file ("PAYR")
+    public static final int MAGIC = 0x50415952;
+    // The version of the format
+    public static final int VERSION = 1;
+
+    // The size of MAGIC, VERSION and the employee count
+    private static final int HEADER = 12;
+
+    /**
+     * Converts an employees file to the other format
+     *
+     * @param args  - The file to convert and the file to write it to
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: PayrollStore <from> <to>");
+            return;
+        }
+        try {
+            int count = isStore(args[0]) ? toText(args[0], args[1]) : toBinary(args[0], args[1]);
+            System.out.println(count + " employees written to " + args[1]);
+        } catch (IOException e) {
+            System.out.println("Error converting " + args[0] + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converts a text employees file to the binary format
+     *
+     * @param text          - The location of the text file
+     * @param binary        - The location to write the binary file to
+     * @return              - The amount of employees written
+     * @throws IOException  - Thrown if no employees were read or the binary file cant be written
+     */
+    public static int toBinary(String text, String binary) throws IOException {
+        // Read into a list of its own so the employees already loaded are left alone
+        List<Employee> list = new ArrayList<Employee>();
+        PayrollReport.readFile(text, list, new PayrollTotals());
+        if (list.isEmpty())
+            throw new IOException("No employees were read from " + text);
+        write(list, binary);
+        return list.size();
+    }
+
+    /**
+     * Converts a binary employees file to the text format
+     *
+     * @param binary        - The location of the binary file
+     * @param text          - The location to write the text file to
+     * @return              - The amount of employees written
+     * @throws IOException  - Thrown if either file cant be read or written
+     */
+    public static int toText(String binary, String text) throws IOException {
+        List<Employee> list = new ArrayList<Employee>();
+        if (!read(binary, list, new PayrollTotals()))
+            throw new IOException(binary + " is not a binary employees file");
+        writeText(list, text);
+        return list.size();
+    }
+
+    /**
+     * Checks whether or not a file starts with MAGIC
+     *
+     * @param path          - The location of the file
+     * @return              - Whether or not the file is in the binary format
+     * @throws IOException  - Thrown if the file cant be opened or read
+     */
+    public static boolean isStore(String path) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            return isStore(channel);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads a binary file into PayrollReport.employees, adding every salary
+     * to the totals. Returns false without reading anything if the file isnt
+     * in the binary format
+     *
+     * @param path          - The location of the file
+     * @return              - Whether or not the file was read
+     * @throws IOException  - Thrown if the file cant be opened or is damaged
+     */
+    public static boolean read(String path) throws IOException {
+        return read(path, PayrollReport.employees, PayrollReport.totals);
+    }
+
+    /**
+     * Reads a binary file into a list of employees, adding every salary to
+     * the totals. Returns false without reading anything if the file isnt in
+     * the binary format
+     *
+     * @param path          - The location of the file
+     * @param into          - The list the employees are added to
+     * @param totals        - The totals the salaries are added to
+     * @return              - Whether or not the file was read
+     * @throws IOException  - Thrown if the file cant be opened or is damaged
+     */
+    public static boolean read(String path, List<Employee> into, PayrollTotals totals) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            if (!isStore(channel))
+                return false;
+            long size = channel.size();
+            ByteBuffer header = readFully(channel, HEADER, size);
+            header.getInt(); // MAGIC, already checked
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported version " + version + " in " + path);
+            int count = header.getInt();
+            if (count < 0 || count > Integer.MAX_VALUE / 8 || count * 20L > size) // Every employee needs 20 bytes
+                throw new IOException("Damaged file " + path);
+            String[] lastNames = readDictionary(channel, size);
+            String[] positions = readDictionary(channel, size);
+            int[] ids = new int[count];
+            int[] nameIndex = new int[count];
+            int[] positionIndex = new int[count];
+            long[] cents = new long[count];
+            readFully(channel, count * 4, size).asIntBuffer().get(ids);
+            readFully(channel, count * 4, size).asIntBuffer().get(nameIndex);
+            readFully(channel, count * 4, size).asIntBuffer().get(positionIndex);
+            readFully(channel, count * 8, size).asLongBuffer().get(cents);
+            for (int i = 0; i < count; i++) {
+                if (nameIndex[i] < 0 || nameIndex[i] >= lastNames.length
+                        || positionIndex[i] < 0 || positionIndex[i] >= positions.length)
+                    throw new IOException("Damaged file " + path);
+            }
+            for (int i = 0; i < count; i++) {
+                // The same calls as loopContents() so the totals are kept the same way
+                Employee e = new Employee(ids[i], totals);
+                e.setLastName(lastNames[nameIndex[i]]);
+                e.setPosition(positions[positionIndex[i]]);
+                e.setSalary(cents[i] / 100D);
+                into.add(e);
+            }
+            // Only a read into the loaded employees finishes the current employee
+            if (into == PayrollReport.employees)
+                PayrollReport.current = null;
+            return true;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes employees to a file in the binary format
+     *
+     * @param list          - The employees to write
+     * @param path          - The location of the file
+     * @throws IOException  - Thrown if the file cant be written
+     */
+    public static void write(List<Employee> list, String path) throws IOException {
+        int count = list.size();
+        List<String> lastNames = new ArrayList<String>();
+        List<String> positions = new ArrayList<String>();
+        Map<String, Integer> nameIndex = new HashMap<String, Integer>();
+        Map<String, Integer> positionIndex = new HashMap<String, Integer>();
+        ByteBuffer ids = ByteBuffer.allocate(count * 4);
+        ByteBuffer names = ByteBuffer.allocate(count * 4);
+        ByteBuffer jobs = ByteBuffer.allocate(count * 4);
+        ByteBuffer cents = ByteBuffer.allocate(count * 8);
+        for (Employee e : list) {
+            ids.putInt(e.getId());
+            names.putInt(index(e.getLastName(), lastNames, nameIndex));
+            jobs.putInt(index(e.getPosition(), positions, positionIndex));
+            cents.putLong(Math.round(e.getRawSalary() * 100D));
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).putInt(VERSION).putInt(count);
+        header.flip();
+        ids.flip();
+        names.flip();
+        jobs.flip();
+        cents.flip();
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            writeFully(channel, header);
+            writeFully(channel, dictionary(lastNames));
+            writeFully(channel, dictionary(positions));
+            writeFully(channel, ids);
+            writeFully(channel, names);
+            writeFully(channel, jobs);
+            writeFully(channel, cents);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes employees to a file in the text format, 4 lines each
+     *
+     * @param list          - The employees to write
+     * @param path          - The location of the file
+     * @throws IOException  - Thrown if the file cant be written
+     */
+    public static void writeText(List<Employee> list, String path) throws IOException {
+        BufferedWriter bw = null;
+        try {
+            bw = new BufferedWriter(new FileWriter(path));
+            StringBuilder b = new StringBuilder();
+            for (Employee e : list) {
+                b.setLength(0);
+                b.append(e.getId()).append("\r\n");
+                b.append(e.getLastName()).append("\r\n");
+                b.append(e.getPosition()).append("\r\n");
+                appendCents(b, Math.round(e.getRawSalary() * 100D));
+                b.append("\r\n");
+                bw.append(b);
+            }
+        } finally {
+            if (bw != null)
+                bw.close();
+        }
+    }
+
+    /**
+     * Adds an amount of cents as dollars with 2 decimal places
+     *
+     * @param b     - Where the amount is added
+     * @param cents - The amount in cents
+     */
+    private static void appendCents(StringBuilder b, long cents) {
+        if (cents < 0) {
+            b.append('-');
+            cents = -cents;
+        }
+        long c = cents % 100;
+        b.append(cents / 100).append('.').append(c < 10 ? "0" : "").append(c);
+    }
+
+    /**
+     * Gets the dictionary index of a value, adding it to the dictionary if it is new
+     *
+     * @param value     - The value
+     * @param values    - The dictionary in index order
+     * @param indexes   - The index of every value in the dictionary
+     * @return          - The index of the value
+     */
+    private static int index(String value, List<String> values, Map<String, Integer> indexes) {
+        Integer i = indexes.get(value);
+        if (i == null) {
+            i = values.size();
+            values.add(value);
+            indexes.put(value, i);
+        }
+        return i;
+    }
+
+    /**
+     * Turns a dictionary into its bytes: the entry count, the byte length of
+     * each entry and then the UTF-8 bytes of every entry
+     *
+     * @param values    - The dictionary in index order
+     * @return          - The bytes of the dictionary, ready to be written
+     */
+    private static ByteBuffer dictionary(List<String> values) {
+        byte[][] bytes = new byte[values.size()][];
+        int length = 4 + bytes.length * 4;
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+            length += bytes[i].length;
+        }
+        ByteBuffer b = ByteBuffer.allocate(length);
+        b.putInt(bytes.length);
+        for (byte[] entry : bytes)
+            b.putInt(entry.length);
+        for (byte[] entry : bytes)
+            b.put(entry);
+        b.flip();
+        return b;
+    }
+
+    /**
+     * Reads a dictionary written by dictionary()
+     *
+     * @param channel       - The file, positioned at the dictionary
+     * @param size          - The size of the file
+     * @return              - The entries of the dictionary in index order
+     * @throws IOException  - Thrown if the file cant be read or is damaged
+     */
+    private static String[] readDictionary(FileChannel channel, long size) throws IOException {
+        int entries = readFully(channel, 4, size).getInt();
+        if (entries < 0 || entries * 4L > size)
+            throw new IOException("Damaged dictionary");
+        int[] lengths = new int[entries];
+        readFully(channel, entries * 4, size).asIntBuffer().get(lengths);
+        long total = 0;
+        for (int length : lengths) {
+            if (length < 0)
+                throw new IOException("Damaged dictionary");
+            total += length;
+        }
+        if (total > size)
+            throw new IOException("Damaged dictionary");
+        byte[] bytes = new byte[(int) total];
+        readFully(channel, bytes.length, size).get(bytes);
+        String[] values = new String[entries];
+        int offset = 0;
+        for (int i = 0; i < entries; i++) {
+            values[i] = new String(bytes, offset, lengths[i], StandardCharsets.UTF_8);
+            offset += lengths[i];
+        }
+        return values;
+    }
+
+    /**
+     * Checks whether or not a file starts with MAGIC, leaving it positioned at the start
+     *
+     * @param channel       - The file
+     * @return              - Whether or not the file is in the binary format
+     * @throws IOException  - Thrown if the file cant be read
+     */
+    private static boolean isStore(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        while (magic.hasRemaining())
+            if (channel.read(magic, magic.position()) < 0)
+                return false; // Too short to be a binary file
+        return magic.getInt(0) == MAGIC;
+    }
+
+    /**
+     * Reads the next bytes of the file in one bulk read
+     *
+     * @param channel       - The file
+     * @param length        - The amount of bytes to read
+     * @param size          - The size of the file
+     * @return              - The bytes, ready to be read from
+     * @throws IOException  - Thrown if the file cant be read or ends too soon
+     */
+    private static ByteBuffer readFully(FileChannel channel, int length, long size) throws IOException {
+        if (channel.position() + length > size)
+            throw new IOException("Damaged file, it ends too soon");
+        ByteBuffer b = ByteBuffer.allocate(length);
+        while (b.hasRemaining())
+            if (channel.read(b) < 0)
+                throw new IOException("Damaged file, it ends too soon");
+        b.flip();
+        return b;
+    }
+
+    /**
+     * Writes all of the bytes to the file
+     *
+     * @param channel       - The file
+     * @param b             - The bytes, ready to be read
+     * @throws IOException  - Thrown if the file cant be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer b) throws IOException {
+        while (b.hasRemaining())
+            channel.write(b);
+    }
+
+}
@@ -0,0 +1,350 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the payroll totals for every position as employees are loaded. Each
+ * position has its own sum, count, lowest and highest salary. The sums and
+ * counts are striped adders and the lowest and highest salaries are updated
+ * with compare and set, so many threads can add employees at once without
+ * waiting on each other.
+ *
+ * Positions are matched ignoring case. Taking a salary out can leave the
+ * lowest or highest salary of a position out of date, in which case it is
+ * worked out again from the employees by refresh().
+ *
+ * @author Lee Tzilantonis
+ */
+public class PayrollTotals {
+
+    // The labels used in the reports for the original positions
+    public static final String[][] LABELS = {
+        {"MANAGER", "Managers", "Managers"},
+        {"SALES", "Sales Staff", "Sales"},
+        {"ADMINISTRATION", "Admin Staff", "Admin"}
+    };
+
+    // The totals of every position, keyed by the upper case position
+    private final ConcurrentHashMap<String, Position> positions = new ConcurrentHashMap<String, Position>();
+    // The totals of every employee
+    private final DoubleAdder total = new DoubleAdder();
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Adds a salary to the totals of the position
+     *
+     * @param position  - The Employees position
+     * @param salary    - The Employees salary
+     */
+    public void add(String position, double salary) {
+        Position p = positions.get(key(position));
+        if (p == null) { // Only create a new position if another thread hasnt already
+            Position created = new Position(position);
+            p = positions.putIfAbsent(key(position), created);
+            if (p == null)
+                p = created;
+        }
+        p.add(salary);
+        total.add(salary);
+        count.increment();
+    }
+
+    /**
+     * Takes a salary that was added before out of the totals of the position
+     *
+     * @param position  - The position the salary was added under
+     * @param salary    - The salary that was added
+     */
+    public void remove(String position, double salary) {
+        Position p = positions.get(key(position));
+        if (p == null)
+            return; // Was never added
+        p.remove(salary);
+        total.add(-salary);
+        count.decrement();
+    }
+
+    /**
+     * Gets the total of every salary
+     *
+     * @return  - The total of every salary
+     */
+    public double getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Gets the amount of salaries added
+     *
+     * @return  - The amount of salaries
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the totals of the position
+     *
+     * @param position  - The position, in any case
+     * @return          - The totals of the position or null if no one has that position
+     */
+    public Position get(String position) {
+        return positions.get(key(position));
+    }
+
+    /**
+     * Gets the total of the salaries of the position
+     *
+     * @param position  - The position, in any case
+     * @return          - The total, 0 if no one has that position
+     */
+    public double sum(String position) {
+        Position p = get(position);
+        return p == null ? 0D : p.getSum();
+    }
+
+    /**
+     * Gets the totals of every position that has anyone in it, the original
+     * positions first and then the others in alphabetical order
+     *
+     * @return  - The totals of every position
+     */
+    public List<Position> getPositions() {
+        List<Position> list = new ArrayList<Position>();
+        for (Position p : positions.values())
+            if (p.getCount() > 0)
+                list.add(p);
+        Collections.sort(list, new Comparator<Position>() {
+            @Override
+            public int compare(Position a, Position b) {
+                int x = labelIndex(a.key), y = labelIndex(b.key);
+                return x != y ? Integer.compare(x, y) : a.key.compareTo(b.key);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Works out the lowest and highest salaries again for the positions
+     * where a salary was taken out that may have been one of them
+     *
+     * @param employees - Every employee whose salary is in the totals
+     */
+    public void refresh(List<Employee> employees) {
+        List<Position> stale = new ArrayList<Position>();
+        for (Position p : positions.values())
+            if (p.stale)
+                stale.add(p);
+        if (stale.isEmpty())
+            return;
+        for (Position p : stale)
+            p.resetExtremes();
+        for (Employee e : employees) {
+            if (e.getCountedPosition() == null)
+                continue; // The salary was never added
+            Position p = positions.get(key(e.getCountedPosition()));
+            if (p != null && stale.contains(p))
+                p.extremes(e.getRawSalary());
+        }
+    }
+
+    /**
+     * Removes every position and salary
+     */
+    public void clear() {
+        positions.clear();
+        total.reset();
+        count.reset();
+    }
+
+    /**
+     * Creates the totals of a position that no one has
+     *
+     * @param position  - The position
+     * @return          - The empty totals
+     */
+    public static Position empty(String position) {
+        return new Position(position);
+    }
+
+    /**
+     * Gets the key positions are stored under, so they match ignoring case
+     *
+     * @param position  - The position
+     * @return          - The key of the position
+     */
+    public static String key(String position) {
+        return position == null ? "" : position.toUpperCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Gets where a position comes in LABELS
+     *
+     * @param key   - The key of the position
+     * @return      - The index in LABELS, or the length of LABELS if it isnt one of them
+     */
+    private static int labelIndex(String key) {
+        for (int i = 0; i < LABELS.length; i++)
+            if (LABELS[i][0].equals(key))
+                return i;
+        return LABELS.length;
+    }
+
+    /**
+     * The totals of a single position
+     */
+    public static class Position {
+
+        // The key of the position and the name it was first added with
+        private final String key, name;
+        // The total and amount of salaries
+        private final DoubleAdder sum = new DoubleAdder();
+        private final LongAdder count = new LongAdder();
+        // The bits of the lowest and highest salaries
+        private final AtomicLong min = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        private final AtomicLong max = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+        // Whether a salary was taken out that could have been the lowest or highest
+        private volatile boolean stale;
+
+        /**
+         * Constructs the Position Object
+         *
+         * @param name  - The name of the position
+         */
+        private Position(String name) {
+            this.key = key(name);
+            this.name = name == null ? "" : name;
+        }
+
+        /**
+         * Gets the name used for the position in the reports
+         *
+         * @return  - The label of the position
+         */
+        public String getLabel() {
+            int i = labelIndex(key);
+            return i < LABELS.length ? LABELS[i][1] : name;
+        }
+
+        /**
+         * Gets the short name used for the position in the summary
+         *
+         * @return  - The short label of the position
+         */
+        public String getShortLabel() {
+            int i = labelIndex(key);
+            return i < LABELS.length ? LABELS[i][2] : name;
+        }
+
+        /**
+         * Gets the total of the salaries
+         *
+         * @return  - The total of the salaries
+         */
+        public double getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * Gets the amount of salaries
+         *
+         * @return  - The amount of salaries
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Gets the lowest salary
+         *
+         * @return  - The lowest salary, or 0 if there are none
+         */
+        public double getMin() {
+            return getCount() == 0 ? 0D : Double.longBitsToDouble(min.get());
+        }
+
+        /**
+         * Gets the highest salary
+         *
+         * @return  - The highest salary, or 0 if there are none
+         */
+        public double getMax() {
+            return getCount() == 0 ? 0D : Double.longBitsToDouble(max.get());
+        }
+
+        /**
+         * Gets the average salary
+         *
+         * @return  - The average salary, or 0 if there are none
+         */
+        public double getMean() {
+            long c = getCount();
+            return c == 0 ? 0D : getSum() / c;
+        }
+
+        /**
+         * Gets whether the lowest or highest salary may be out of date until refresh() is called
+         *
+         * @return  - Whether or not the lowest and highest salaries may be out of date
+         */
+        public boolean isStale() {
+            return stale;
+        }
+
+        /**
+         * Adds a salary
+         *
+         * @param salary    - The salary to add
+         */
+        private void add(double salary) {
+            sum.add(salary);
+            count.increment();
+            extremes(salary);
+        }
+
+        /**
+         * Takes out a salary
+         *
+         * @param salary    - The salary to take out
+         */
+        private void remove(double salary) {
+            sum.add(-salary);
+            count.decrement();
+            if (salary <= Double.longBitsToDouble(min.get()) || salary >= Double.longBitsToDouble(max.get()))
+                stale = true;
+        }
+
+        /**
+         * Updates the lowest and highest salaries with the salary
+         *
+         * @param salary    - The salary
+         */
+        private void extremes(double salary) {
+            long bits = Double.doubleToLongBits(salary);
+            long old;
+            // Retry if another thread changed the value in between
+            while (salary < Double.longBitsToDouble(old = min.get()))
+                if (min.compareAndSet(old, bits))
+                    break;
+            while (salary > Double.longBitsToDouble(old = max.get()))
+                if (max.compareAndSet(old, bits))
+                    break;
+        }
+
+        /**
+         * Clears the lowest and highest salaries so they can be worked out again
+         */
+        private void resetExtremes() {
+            stale = false;
+            min.set(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+            max.set(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+        }
+    }
+
+}
@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the employees and totals in memory and brings them up to date when the
+ * employees file changes, rewriting the report each time. Every record (the 4
+ * lines of an employee) is remembered by its ID, how many times that ID came
+ * before it in the file, and a hash of its bytes. When the file changes, only
+ * records whose hash is different are parsed, and their old salaries are taken
+ * out of the totals and the new ones added, so editing one salary doesnt
+ * parse the whole file again or rebuild the totals.
+ *
+ * Records after the first bad one are left out, the same as loopContents().
+ *
+ * @author Lee Tzilantonis
+ */
+public class PayrollWatcher {
+
+    // How long to wait for an editor to finish writing before reading the file
+    public static final long SETTLE_MILLIS = 100;
+
+    // The file being watched and the charset it is decoded with
+    private final Path file;
+    private final Charset charset = Charset.defaultCharset();
+
+    // Every record that was loaded, keyed by its ID and occurrence
+    private Map<Long, Record> records = new HashMap<Long, Record>();
+
+    // What the last update() did
+    private int changed, added, removed;
+
+    /**
+     * Constructs the PayrollWatcher Object
+     *
+     * @param path  - The location of the employees file
+     */
+    public PayrollWatcher(String path) {
+        this.file = Paths.get(path);
+    }
+
+    /**
+     * Loads the file and then updates the employees and report every time it
+     * changes, until the thread is interrupted
+     *
+     * @throws IOException          - Thrown if the file cant be watched
+     * @throws InterruptedException - Thrown when the thread is interrupted
+     */
+    public void watch() throws IOException, InterruptedException {
+        // Start from nothing so every employee is one of the loaded records
+        PayrollReport.employees.clear();
+        PayrollReport.totals.clear();
+        update();
+        Path dir = file.toAbsolutePath().getParent();
+        WatchService service = FileSystems.getDefault().newWatchService();
+        try {
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            System.out.println("Watching " + file + " for changes");
+            while (true) {
+                WatchKey key = service.take();
+                boolean ours = false;
+                for (WatchEvent<?> event : key.pollEvents())
+                    if (file.getFileName().equals(event.context()))
+                        ours = true;
+                key.reset();
+                if (!ours)
+                    continue;
+                // Editors often write a file in several steps, so let them finish
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey more;
+                while ((more = service.poll()) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                update();
+            }
+        } finally {
+            service.close();
+        }
+    }
+
+    /**
+     * Reads the file and applies only the records that changed to the
+     * employees and totals, then rewrites the report
+     *
+     * @throws IOException  - Thrown if the file cant be read
+     */
+    public void update() throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            System.out.println(file + " file not found");
+            return;
+        }
+        apply(ByteBuffer.wrap(bytes));
+        if (PayrollReport.employees.isEmpty()) {
+            System.out.println("Cannot create report with no employees");
+        } else if (PayrollReport.writeReport()) {
+            System.out.println(PayrollReport.OUTPUT + " updated: " + changed + " changed, "
+                    + added + " added, " + removed + " removed");
+        }
+    }
+
+    /**
+     * Gets the amount of records that were parsed again by the last update
+     *
+     * @return  - The amount of changed records
+     */
+    public int getChanged() {
+        return changed;
+    }
+
+    /**
+     * Gets the amount of new records found by the last update
+     *
+     * @return  - The amount of added records
+     */
+    public int getAdded() {
+        return added;
+    }
+
+    /**
+     * Gets the amount of records that were gone in the last update
+     *
+     * @return  - The amount of removed records
+     */
+    public int getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Matches every record in the file to the one loaded before and applies
+     * the differences
+     *
+     * @param b     - The contents of the file
+     */
+    private void apply(ByteBuffer b) {
+        changed = added = removed = 0;
+        Map<Long, Record> next = new HashMap<Long, Record>();
+        Map<Integer, Integer> seen = new HashMap<Integer, Integer>();
+        List<Employee> employees = new ArrayList<Employee>();
+        int[] lines = new int[8]; // The start and end of each of the 4 lines of a record
+        int limit = b.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int count = 0;
+            for (; count < 4 && pos < limit; count++) {
+                lines[count * 2] = pos;
+                lines[count * 2 + 1] = PayrollParser.lineEnd(b, pos);
+                pos = PayrollParser.nextLine(b, lines[count * 2 + 1]);
+            }
+            int id;
+            try {
+                id = PayrollParser.parseInt(b, lines[0], lines[1], charset);
+            } catch (NumberFormatException e) {
+                System.out.println("Employee ID not number");
+                break;
+            }
+            if (count < 4)
+                break; // The file ends part way through the employee, which is never added
+            Integer before = seen.get(id);
+            int occurrence = before == null ? 0 : before + 1;
+            seen.put(id, occurrence);
+            long key = ((long) id << 32) | occurrence;
+            long hash = hash(b, lines);
+            Record record = records.remove(key);
+            if (record == null || record.hash != hash) {
+                double salary;
+                try {
+                    salary = PayrollParser.parseDouble(b, lines[6], lines[7], charset);
+                } catch (NumberFormatException e) {
+                    System.out.println("Employee Salary not double");
+                    if (record != null) // Put it back so it is taken out with the others
+                        records.put(key, record);
+                    break;
+                }
+                String lastName = PayrollParser.decode(b, lines[2], lines[3], charset);
+                String position = PayrollParser.decode(b, lines[4], lines[5], charset);
+                if (record == null) {
+                    record = new Record(new Employee(id, PayrollReport.totals));
+                    added++;
+                } else {
+                    changed++;
+                }
+                // The setters take the old salary out of the totals and add the new one
+                record.employee.setLastName(lastName);
+                record.employee.setPosition(position);
+                record.employee.setSalary(salary);
+                record.hash = hash;
+            }
+            next.put(key, record);
+            employees.add(record.employee);
+        }
+        // Anything not matched is no longer in the file
+        for (Record r : records.values()) {
+            Employee e = r.employee;
+            if (e.getCountedPosition() != null)
+                PayrollReport.totals.remove(e.getCountedPosition(), e.getRawSalary());
+            removed++;
+        }
+        records = next;
+        PayrollReport.employees.clear();
+        PayrollReport.employees.addAll(employees);
+    }
+
+    /**
+     * Hashes the bytes of the 4 lines of a record (FNV-1a)
+     *
+     * @param b     - The contents of the file
+     * @param lines - The start and end of each line
+     * @return      - The hash of the record
+     */
+    private static long hash(ByteBuffer b, int[] lines) {
+        long h = 0xcbf29ce484222325L;
+        for (int l = 0; l < 8; l += 2) {
+            for (int i = lines[l]; i < lines[l + 1]; i++) {
+                h ^= b.get(i) & 0xff;
+                h *= 0x100000001b3L;
+            }
+            h ^= 0x100; // Separates the lines so moving a character between them changes the hash
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * A record that has been loaded and the hash of its bytes
+     */
+    private static class Record {
+
+        // The employee the record was loaded into
+        private final Employee employee;
+        // The hash of the bytes of the record
+        private long hash;
+
+        /**
+         * Constructs the Record Object
+         *
+         * @param employee  - The employee the record is loaded into
+         */
+        private Record(Employee employee) {
+            this.employee = employee;
+        }
+    }
+
+}
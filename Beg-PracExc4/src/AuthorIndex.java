@@ -0,0 +1,46 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * File: AuthorIndex.java
+ * Date: 24/05/2017
+ * Notes: Maps each author, ignoring case, to the catalogue positions of
+ * their books.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class AuthorIndex {
+
+    /**
+     * Postings for each upper cased author
+     */
+    private final Map<String, Postings> authors = new HashMap<String, Postings>();
+
+    /**
+     * Indexes the author of a book, positions must be added in ascending order
+     *
+     * @param position The catalogue position of the book
+     * @param author The author of the book
+     */
+    public void add(int position, String author) {
+        String key = author.toUpperCase();
+        Postings p = this.authors.get(key);
+        if (p == null) {
+            p = new Postings();
+            this.authors.put(key, p);
+        }
+        p.add(position);
+    }
+
+    /**
+     * Gets the catalogue positions of the books by the author
+     *
+     * @param author The author to look up, ignoring case
+     * @return - The ascending positions of their books, or null if there are none
+     */
+    public Postings get(String author) {
+        return this.authors.get(author.toUpperCase());
+    }
+
+}
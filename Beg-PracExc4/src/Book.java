@@ -13,10 +13,14 @@ public class Book {
     private static final String DEFAULT_TITLE = "Book Title";
     private static final String DEFAULT_AUTHOR = "Smith";
     private static final double DEFAULT_PRICE = 10.0D;
-    private static final String ID_TITLE = "ISBN: ";
-    private static final String TITLE_NAME = "Title: ";
-    private static final String AUTHOR_TITLE = "Author: ";
-    private static final String PRICE_TITLE = "Price $";
+    
+    /**
+     * The labels used in the String representation, shared with BookRenderer
+     */
+    static final String ID_TITLE = "ISBN: ";
+    static final String TITLE_NAME = "Title: ";
+    static final String AUTHOR_TITLE = "Author: ";
+    static final String PRICE_TITLE = "Price $";
     
     /**
      * The ID of the book (ISBN)
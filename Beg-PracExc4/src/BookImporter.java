@@ -0,0 +1,333 @@
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * File: BookImporter.java
+ * Date: 24/05/2017
+ * Notes: Streams a CSV or TSV file of id,title,author,price rows into a
+ * catalogue. Lines are read in batches that are parsed on a pool of worker
+ * threads, with only a few batches in memory at once. The batches are merged
+ * back in file order so duplicate IDs are decided the same as if the rows
+ * had been added one at a time.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class BookImporter {
+
+    /**
+     * The amount of lines parsed by a worker at a time
+     */
+    public static final int BATCH_SIZE = 4096;
+
+    /**
+     * The catalogue books are imported into
+     */
+    private final Catalogue catalogue;
+
+    /**
+     * The amount of worker threads parsing batches
+     */
+    private final int threads;
+
+    /**
+     * The main constructor for the BookImporter Object
+     *
+     * @param catalogue The catalogue books are imported into
+     * @param threads The amount of worker threads parsing batches
+     */
+    public BookImporter(Catalogue catalogue, int threads) {
+        this.catalogue = catalogue;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Constructs the BookImporter Object with a worker thread per processor
+     *
+     * @param catalogue The catalogue books are imported into
+     */
+    public BookImporter(Catalogue catalogue) {
+        this(catalogue, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Imports every valid row of the file into the catalogue. Files ending in
+     * ".tsv" are split on tabs, anything else on commas. A first row starting
+     * with "id" is treated as a header and skipped
+     *
+     * @param path The location of the file to import
+     * @return - The books that were added and the rows that were rejected
+     * @throws IOException - Thrown if the file couldnt be read
+     */
+    public Result importFile(String path) throws IOException {
+        char delimiter = path.toLowerCase().endsWith(".tsv") ? '\t' : ',';
+        Result result = new Result();
+        IdIndex seen = new IdIndex();
+        List<Book> accepted = new ArrayList<Book>();
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        // Oldest batch first, capped so reading cant run far ahead of parsing
+        ArrayDeque<Future<Batch>> pending = new ArrayDeque<Future<Batch>>();
+        int limit = this.threads * 2;
+        BufferedReader br = null;
+        try {
+            br = new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8));
+            String[] lines = new String[BookImporter.BATCH_SIZE];
+            int count = 0, first = 1, lineNo = 0;
+            String line;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                if (count == 0)
+                    first = lineNo;
+                lines[count++] = line;
+                if (count == lines.length) {
+                    pending.add(pool.submit(new Batch(lines, count, first, delimiter)));
+                    lines = new String[BookImporter.BATCH_SIZE];
+                    count = 0;
+                    if (pending.size() >= limit)
+                        this.merge(pending.poll(), seen, accepted, result);
+                }
+            }
+            if (count > 0)
+                pending.add(pool.submit(new Batch(lines, count, first, delimiter)));
+            while (!pending.isEmpty())
+                this.merge(pending.poll(), seen, accepted, result);
+        } finally {
+            pool.shutdownNow();
+            if (br != null)
+                br.close();
+        }
+        result.added = accepted.toArray(new Book[accepted.size()]);
+        this.catalogue.addAll(result.added);
+        return result;
+    }
+
+    /**
+     * Waits for a batch to be parsed and keeps the books whose IDs are unique
+     *
+     * @param future The batch being parsed
+     * @param seen The IDs accepted so far in this import
+     * @param accepted The books accepted so far in this import
+     * @param result Where rejected rows are recorded
+     * @throws IOException - Thrown if the batch failed to parse
+     */
+    private void merge(Future<Batch> future, IdIndex seen, List<Book> accepted, Result result)
+            throws IOException {
+        Batch batch;
+        try {
+            batch = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to parse rows: " + e.getCause(), e.getCause());
+        }
+        for (int i = 0; i < batch.count; i++) {
+            int lineNo = batch.first + i;
+            if (batch.errors[i] != null) {
+                result.reject(lineNo, batch.errors[i]);
+                continue;
+            }
+            Book book = batch.books[i];
+            if (book == null)
+                continue; // Blank line or header
+            if (this.catalogue.exists(book.getId()) || seen.contains(book.getId())) {
+                result.reject(lineNo, "ID " + book.getId() + " already exists");
+                continue;
+            }
+            seen.put(book.getId(), accepted.size());
+            accepted.add(book);
+        }
+    }
+
+    /**
+     * Splits a line on the delimiter, allowing fields to be wrapped in double
+     * quotes so they can contain the delimiter ("" inside quotes is a quote)
+     *
+     * @param line The line to be split
+     * @param delimiter The character between fields
+     * @return - The fields of the line
+     */
+    public static List<String> split(String line, char delimiter) {
+        List<String> fields = new ArrayList<String>(4);
+        StringBuilder b = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        b.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    b.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(b.toString());
+                b.setLength(0);
+            } else {
+                b.append(c);
+            }
+        }
+        fields.add(b.toString());
+        return fields;
+    }
+
+    /**
+     * Parses a row into a book, applying the same rules as BookStore.addBook()
+     * apart from the unique ID check
+     *
+     * @param line The row to be parsed
+     * @param delimiter The character between fields
+     * @return - The parsed book
+     * @throws IllegalArgumentException - Thrown with the reason if the row is invalid
+     */
+    public static Book parse(String line, char delimiter) {
+        List<String> fields = BookImporter.split(line, delimiter);
+        if (fields.size() != 4)
+            throw new IllegalArgumentException("Expected 4 fields but found " + fields.size());
+        int id;
+        double price;
+        try {
+            id = Integer.parseInt(fields.get(0).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ID is not an integer");
+        }
+        try {
+            price = Double.parseDouble(fields.get(3).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Price is not a number");
+        }
+        String title = fields.get(1), author = fields.get(2);
+        String error = BookStore.validate(id, title, author, price);
+        if (error != null)
+            throw new IllegalArgumentException(error);
+        return new Book(id, title, author, price);
+    }
+
+    /**
+     * A batch of lines that is parsed by a worker thread
+     */
+    private static class Batch implements Callable<Batch> {
+
+        /**
+         * The lines in the batch
+         */
+        private final String[] lines;
+
+        /**
+         * The amount of lines in the batch and the line number of the first
+         */
+        private final int count, first;
+
+        /**
+         * The character between fields
+         */
+        private final char delimiter;
+
+        /**
+         * The parsed book for each line, null for blank lines, headers and errors
+         */
+        private final Book[] books;
+
+        /**
+         * The reason each line was rejected, null if it wasnt
+         */
+        private final String[] errors;
+
+        /**
+         * The main constructor for the Batch Object
+         *
+         * @param lines The lines in the batch
+         * @param count The amount of lines in the batch
+         * @param first The line number of the first line
+         * @param delimiter The character between fields
+         */
+        private Batch(String[] lines, int count, int first, char delimiter) {
+            this.lines = lines;
+            this.count = count;
+            this.first = first;
+            this.delimiter = delimiter;
+            this.books = new Book[count];
+            this.errors = new String[count];
+        }
+
+        @Override
+        public Batch call() {
+            for (int i = 0; i < this.count; i++) {
+                String line = this.lines[i];
+                this.lines[i] = null; // Let the line be collected once it is parsed
+                if (line.trim().isEmpty())
+                    continue;
+                if (this.first + i == 1 && line.trim().toLowerCase().startsWith("id"))
+                    continue;
+                try {
+                    this.books[i] = BookImporter.parse(line, this.delimiter);
+                } catch (IllegalArgumentException e) {
+                    this.errors[i] = e.getMessage();
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * The outcome of an import
+     */
+    public static class Result {
+
+        /**
+         * The books that were added to the catalogue
+         */
+        private Book[] added = new Book[0];
+
+        /**
+         * A message for every row that was rejected, including its line number
+         */
+        private final List<String> rejected = new ArrayList<String>();
+
+        /**
+         * Records a rejected row
+         *
+         * @param lineNo The line number of the row
+         * @param reason The reason the row was rejected
+         */
+        private void reject(int lineNo, String reason) {
+            this.rejected.add("Line " + lineNo + ": " + reason);
+        }
+
+        /**
+         * Gets the books that were added to the catalogue
+         *
+         * @return - The added books in file order
+         */
+        public Book[] getAdded() {
+            return this.added;
+        }
+
+        /**
+         * Gets a message for every row that was rejected
+         *
+         * @return - The rejected rows in file order
+         */
+        public List<String> getRejected() {
+            return this.rejected;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+import java.io.IOException;
+
+/**
+ * File: BookRenderer.java
+ * Date: 24/05/2017
+ * Notes: Writes books in the same format as Book.toString() straight into an
+ * Appendable (a Writer, StringBuilder, CharBuffer...) without building a
+ * String for each book. Numbers are formatted into a reused buffer and copied
+ * a character at a time, as appending a CharSequence to some Appendables
+ * converts it to a String first. A renderer should only be used by one thread.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class BookRenderer {
+
+    /**
+     * Reused buffer that numbers are formatted into
+     */
+    private final StringBuilder number = new StringBuilder(32);
+
+    /**
+     * Writes a book in the same format as Book.toString()
+     *
+     * @param book The book to be written
+     * @param out Where the book is written to
+     * @throws IOException - Thrown if the Appendable cant be written to
+     */
+    public void render(Book book, Appendable out) throws IOException {
+        out.append(Book.ID_TITLE);
+        this.number.setLength(0);
+        this.appendNumber(this.number.append(book.getId()), out);
+        out.append(", ").append(Book.TITLE_NAME);
+        out.append(book.getTitle());
+        out.append(" (").append(Book.AUTHOR_TITLE);
+        out.append(book.getAuthor()).append(')');
+        out.append(", ").append(Book.PRICE_TITLE);
+        this.number.setLength(0);
+        this.appendNumber(this.number.append(book.getPrice()), out);
+    }
+
+    /**
+     * Writes a heading followed by each book on its own line, in the same
+     * format BookStore.display() uses
+     *
+     * @param title The heading to be written
+     * @param books The books to be written
+     * @param out Where the books are written to
+     * @throws IOException - Thrown if the Appendable cant be written to
+     */
+    public void renderAll(String title, Book[] books, Appendable out) throws IOException {
+        out.append(title).append(":\n\n");
+        for (Book book : books) {
+            if (book == null)
+                continue;
+            this.render(book, out);
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Copies the formatted number into the Appendable a character at a time
+     *
+     * @param digits The formatted number
+     * @param out Where the number is written to
+     * @throws IOException - Thrown if the Appendable cant be written to
+     */
+    private void appendNumber(StringBuilder digits, Appendable out) throws IOException {
+        for (int i = 0; i < digits.length(); i++)
+            out.append(digits.charAt(i));
+    }
+
+}
@@ -1,4 +1,15 @@
+import java.awt.Dimension;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
 import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
 
 /**
  * File: BookStore.java
@@ -14,9 +25,41 @@ public class BookStore {
     public static boolean running = true;
     
     /**
-     * Library contains all books that have been instantiated
+     * Indicates that messages should be printed instead of shown in dialogs
      */
-    private static final Book[] LIBRARY = new Book[10];
+    public static boolean headless = false;
+    
+    /**
+     * Library contains all books that have been instantiated. It is replaced
+     * by a columnar catalogue before any books are loaded when the program is
+     * run with --columnar
+     */
+    private static Catalogue LIBRARY = new Catalogue();
+    
+    /**
+     * The location of the file the library is saved to
+     */
+    public static final String FILE = "catalogue.dat";
+    
+    /**
+     * The file the library is saved to, null if it couldnt be opened
+     */
+    private static CatalogueFile store;
+    
+    /**
+     * The lowest and highest IDs a book can have
+     */
+    public static final int MIN_ID = 1000, MAX_ID = 9999;
+    
+    /**
+     * Writes books to the output when running headless
+     */
+    private static final BookRenderer RENDERER = new BookRenderer();
+    
+    /**
+     * Buffered standard output that books are written to when running headless
+     */
+    private static final Writer OUT = new BufferedWriter(new OutputStreamWriter(System.out));
     
     /**
      * Menu contains the menu text to be displayed to the user
@@ -25,18 +68,126 @@ public class BookStore {
                                     + "1. Add book to catalogue\n"
                                     + "2. Sort and display books by price\n"
                                     + "3. Search for a book by title\n"
-                                    + "4. Display all books\n\n"
-                                    + "5. Exit";
+                                    + "4. Display all books\n"
+                                    + "5. Find books by author and price range\n\n"
+                                    + "6. Exit";
     
     /**
-     * Main method run when jar is run
+     * Main method run when jar is run. A first argument of --columnar stores
+     * the library as columns instead of Book Objects, for very large catalogues
      * 
      * @param args The command line arguments parsed to the program
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--columnar")) {
+            BookStore.LIBRARY = new Catalogue(true);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (args.length == 2 && args[0].equals("--import")) {
+            BookStore.headless = true;
+            BookStore.open();
+            BookStore.importBooks(args[1]);
+            BookStore.close();
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--console")) {
+            BookStore.headless = true;
+            BookStore.console(args);
+            return;
+        }
+        BookStore.open();
         while(BookStore.running) {
             BookStore.loop();
         }
+        BookStore.close();
+    }
+    
+    /**
+     * Opens the saved library file and loads every book saved in it
+     */
+    public static void open() {
+        try {
+            BookStore.store = new CatalogueFile(BookStore.FILE);
+            // Columnar libraries copy the saved fields straight into their columns
+            BookStore.LIBRARY.load(BookStore.store);
+        } catch (IOException e) {
+            BookStore.error("Unable to open " + BookStore.FILE + ", books will not be saved\n" + e.getMessage());
+        }
+    }
+    
+    /**
+     * Runs the text front end, reading commands from a script file or standard
+     * input. Options after --console are the script file, "--repeat n" to
+     * replay the script n times, "--quiet" to throw away the output and
+     * "--memory" to leave the library file closed. The amount of commands run
+     * and the throughput are printed to standard error when finished
+     * 
+     * @param args The command line arguments parsed to the program
+     */
+    public static void console(String[] args) {
+        String script = null;
+        int repeat = 1;
+        boolean quiet = false, memory = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--repeat") && i + 1 < args.length) {
+                try {
+                    repeat = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    BookStore.error("Please only enter a number for --repeat");
+                    return;
+                }
+            } else if (args[i].equals("--quiet")) {
+                quiet = true;
+            } else if (args[i].equals("--memory")) {
+                memory = true;
+            } else {
+                script = args[i];
+            }
+        }
+        if (script == null && repeat != 1) {
+            BookStore.error("--repeat needs a script file to replay");
+            return;
+        }
+        if (!memory)
+            BookStore.open();
+        Writer out = quiet ? new BookStoreConsole.Discard() : BookStore.OUT;
+        BookStoreConsole console = new BookStoreConsole(BookStore.LIBRARY, out, BookStore.store);
+        long start = System.nanoTime();
+        try {
+            boolean exit = false;
+            for (int i = 0; i < repeat && !exit; i++) {
+                BufferedReader in = script == null
+                        ? new BufferedReader(new InputStreamReader(System.in))
+                        : new BufferedReader(new FileReader(script));
+                try {
+                    exit = console.run(in);
+                } finally {
+                    if (script != null)
+                        in.close();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            BookStore.error("Error running commands: " + e.getMessage());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9D;
+        System.err.println(console.getCommands() + " commands in " + String.format("%.3f", seconds)
+                + "s (" + String.format("%.0f", console.getCommands() / seconds) + " commands/sec)");
+        BookStore.close();
+    }
+    
+    /**
+     * Saves and closes the library file if it is open
+     */
+    public static void close() {
+        if (BookStore.store == null)
+            return;
+        try {
+            BookStore.store.close();
+        } catch (IOException e) {
+            System.out.println("Error closing " + BookStore.FILE);
+        }
+        BookStore.store = null;
     }
     
     /**
@@ -63,11 +214,13 @@ public class BookStore {
         } else if (num == 3) {
             BookStore.search();
         } else if (num == 4) {
-            BookStore.display("Library", BookStore.LIBRARY);
+            BookStore.display("Library", BookStore.LIBRARY.toArray());
         } else if (num == 5) {
+            BookStore.query();
+        } else if (num == 6) {
             BookStore.running = false;
         } else {
-            BookStore.error("Please only enter a number between 1 and 5");
+            BookStore.error("Please only enter a number between 1 and 6");
         }
     }
     
@@ -75,79 +228,129 @@ public class BookStore {
      * Prompts the user with the required inputs to create a new book 
      */
     public static void addBook() {
-        int num = -1;
-        for (int i = 0; i < BookStore.LIBRARY.length; i++)
-            if (BookStore.LIBRARY[i] == null) {
-                num = i;
-                break;
+        int id = -1;
+        while (id < BookStore.MIN_ID || id > BookStore.MAX_ID) {
+            String input = JOptionPane.showInputDialog(null, "Please enter the books ID");
+            if (input == null) {
+                BookStore.error("Please enter an ID");
+                continue;
             }
-        if (num == -1)
-            BookStore.message("Catalogue full - cannot add any more books");
-        else if (num > BookStore.LIBRARY.length - 1)
-            BookStore.error("An unknown error occured");
-        else {
-            int id = -1;
-            while (id < 1000 || id > 9999) {
-                String input = JOptionPane.showInputDialog(null, "Please enter the books ID");
-                if (input == null) {
-                    BookStore.error("Please enter an ID");
-                    continue;
-                }
-                try {
-                    id = Integer.parseInt(input);
-                } catch (NumberFormatException e) {
-                    BookStore.error("Please only enter an integer for the ID");
-                    id = -1;
-                    continue;
-                }
-                if (id < 1000 || id > 9999)
-                    BookStore.error("Please only enter an ID between 1000 and 9999");
-                if (BookStore.exists(id)) {
-                    BookStore.error("That ID already exists, please enter another");
-                    id = -1;
-                }
+            try {
+                id = Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                BookStore.error("Please only enter an integer for the ID");
+                id = -1;
+                continue;
             }
-            String title = "", author = "";
-            while (title.equals("")) {
-                title = JOptionPane.showInputDialog(null, "Please enter the books title");
-                if (title == null) {
-                    BookStore.error("Please make sure you enter something for the title");
-                    title = "";
-                    continue;
-                }
-                if (title.equals(""))
-                    BookStore.error("Please make sure you enter something for the title");
+            if (id < BookStore.MIN_ID || id > BookStore.MAX_ID)
+                BookStore.error("Please only enter an ID between " + BookStore.MIN_ID + " and " + BookStore.MAX_ID);
+            if (BookStore.exists(id)) {
+                BookStore.error("That ID already exists, please enter another");
+                id = -1;
             }
-            while (author.equals("")) {
-                author = JOptionPane.showInputDialog(null, "Please enter the books author");
-                if (author == null) {
-                    BookStore.error("Please make sure you enter something for the author");
-                    author = "";
-                    continue;
-                }
-                if (author.equals(""))
+        }
+        String title = "", author = "";
+        while (title.equals("")) {
+            title = JOptionPane.showInputDialog(null, "Please enter the books title");
+            if (title == null) {
+                BookStore.error("Please make sure you enter something for the title");
+                title = "";
+                continue;
+            }
+            if (title.equals(""))
+                BookStore.error("Please make sure you enter something for the title");
+        }
+        while (author.equals("")) {
+            author = JOptionPane.showInputDialog(null, "Please enter the books author");
+            if (author == null) {
                 BookStore.error("Please make sure you enter something for the author");
+                author = "";
+                continue;
             }
-            double price = -1D;
-            while (price < 0D) {
-                String input = JOptionPane.showInputDialog(null, "Please enter the books price");
-                if (input == null) {
-                    BookStore.error("Please enter a price");
-                    continue;
-                }
-                try {
-                    price = Double.parseDouble(input);
-                } catch (NumberFormatException e) {
-                    BookStore.error("Please only enter a double for the price");
-                    price = -1D;
-                    continue;
-                }
-                if (price < 0D)
-                    BookStore.error("Please only enter a price that is non-negative");
+            if (author.equals(""))
+            BookStore.error("Please make sure you enter something for the author");
+        }
+        double price = -1D;
+        while (price < 0D) {
+            String input = JOptionPane.showInputDialog(null, "Please enter the books price");
+            if (input == null) {
+                BookStore.error("Please enter a price");
+                continue;
+            }
+            try {
+                price = Double.parseDouble(input);
+            } catch (NumberFormatException e) {
+                BookStore.error("Please only enter a double for the price");
+                price = -1D;
+                continue;
             }
-            Book temp = new Book(id, title, author, price);
-            BookStore.LIBRARY[num] = temp;
+            if (price < 0D)
+                BookStore.error("Please only enter a price that is non-negative");
+        }
+        Book temp = new Book(id, title, author, price);
+        if (BookStore.LIBRARY.add(temp)) {
+            BookStore.save(temp);
             BookStore.message("Book ID: " + id + " was added to the library");
+        } else {
+            BookStore.error("An unknown error occured");
+        }
+    }
+    
+    /**
+     * Imports every valid row of a CSV (or TSV) file into the library without
+     * any dialogs, printing the rows that were rejected
+     * 
+     * @param path The location of the file to import
+     */
+    public static void importBooks(String path) {
+        BookImporter.Result result;
+        try {
+            result = new BookImporter(BookStore.LIBRARY).importFile(path);
+        } catch (IOException e) {
+            System.out.println("Unable to import " + path + ": " + e.getMessage());
+            return;
+        }
+        for (Book book : result.getAdded())
+            BookStore.save(book);
+        for (String rejected : result.getRejected())
+            System.out.println(rejected);
+        System.out.println(result.getAdded().length + " books imported, "
+                + result.getRejected().size() + " rows rejected");
+    }
+    
+    /**
+     * Checks a book against the rules that addBook() applies to its inputs
+     * 
+     * @param id The ID of the book
+     * @param title The title of the book
+     * @param author The author of the book
+     * @param price The price of the book
+     * @return - The reason the book is invalid, or null if it is valid
+     */
+    public static String validate(int id, String title, String author, double price) {
+        if (id < BookStore.MIN_ID || id > BookStore.MAX_ID)
+            return "ID must be between " + BookStore.MIN_ID + " and " + BookStore.MAX_ID;
+        if (title == null || title.equals(""))
+            return "Title is empty";
+        if (author == null || author.equals(""))
+            return "Author is empty";
+        if (!(price >= 0D))
+            return "Price is negative";
+        return null;
+    }
+    
+    /**
+     * Appends a book to the library file if it is open
+     * 
+     * @param book The book to be saved
+     */
+    public static void save(Book book) {
+        if (BookStore.store == null)
+            return;
+        try {
+            BookStore.store.append(book);
+        } catch (IOException e) {
+            BookStore.error("Unable to save book ID: " + book.getId() + "\n" + e.getMessage());
         }
     }
     
@@ -158,24 +361,7 @@ public class BookStore {
         if (BookStore.isLibraryEmpty()) {
             BookStore.message("There are no books added to sort or display");
         } else {
-            Book[] temp = BookStore.LIBRARY.clone();
-            int length = 0;
-            for (Book b : temp) {
-                if (b == null)
-                    break;
-                length++;
-            }
-            int c = length - 1;
-            for (int i = 0; i < length - 1; i++) {
-                for (int j = 0; j < c; j++)
-                    if (temp[j].getPrice() > temp[j + 1].getPrice()) {
-                        Book b = temp[j];
-                        temp[j] = temp[j + 1];
-                        temp[j + 1] = b;
-                    }
-                c--;
-            }
-            BookStore.display("Sorted Library", temp);
+            BookStore.display("Sorted Library", BookStore.LIBRARY.sortedByPrice());
         }
     }
     
@@ -184,14 +370,7 @@ public class BookStore {
      * to enter a search query to search library titles
      */
     public static void search() {
-        boolean empty = true;
-        for (Book b : BookStore.LIBRARY) {
-            if (b != null) {
-                empty = false;
-                break;
-            }
-        }
-        if (empty) {
+        if (BookStore.isLibraryEmpty()) {
             BookStore.error("There are no books to search through");
             return;
         }
@@ -223,32 +402,66 @@ public class BookStore {
             return;
         }
         System.out.println("CASE INSENSATIVE: " + ci); // Used for input testing
-        Book[] search = new Book[10];
-        for (int i = 0; i < BookStore.LIBRARY.length; i++) {
-            if (BookStore.LIBRARY[i] == null)
-                continue;
-            if (ci) {
-                if (BookStore.LIBRARY[i].getTitle().toUpperCase().contains(title.toUpperCase()))
-                    search[i] = BookStore.LIBRARY[i];
-            } else {
-                if (BookStore.LIBRARY[i].getTitle().contains(title))
-                    search[i] = BookStore.LIBRARY[i];
-            }
-        }
-        empty = true;
-        for (Book b : search) {
-            if (b != null) {
-                empty = false;
-                break;
-            }
-        }
-        if (empty) {
+        Book[] search = BookStore.LIBRARY.search(title, ci);
+        if (search.length == 0) {
             JOptionPane.showMessageDialog(null, "The title does not exist in the collection");
         } else {
             BookStore.display("Book Details", search);
         }
     }
     
+    /**
+     * Prompts the user for an author and price range and displays the books
+     * that match, leaving any input blank matches everything
+     */
+    public static void query() {
+        if (BookStore.isLibraryEmpty()) {
+            BookStore.error("There are no books to search through");
+            return;
+        }
+        String author = JOptionPane.showInputDialog(null, "Please enter the author to search for\n\nLeave blank for any author");
+        if (author == null)
+            return;
+        author = author.trim();
+        double min = BookStore.askPrice("Please enter the lowest price\n\nLeave blank for no lowest price", 0D);
+        if (Double.isNaN(min))
+            return;
+        double max = BookStore.askPrice("Please enter the highest price\n\nLeave blank for no highest price", Double.MAX_VALUE);
+        if (Double.isNaN(max))
+            return;
+        Book[] found = BookStore.LIBRARY.query(author.equals("") ? null : author, min, max);
+        if (found.length == 0) {
+            BookStore.message("No books match the author and price range");
+        } else {
+            BookStore.display("Book Details", found);
+        }
+    }
+    
+    /**
+     * Prompts the user for a non-negative price until a valid one is entered
+     * 
+     * @param text The text of the prompt
+     * @param blank The price used if the input is left blank
+     * @return - The price entered, or NaN if the user cancelled
+     */
+    public static double askPrice(String text, double blank) {
+        while (true) {
+            String input = JOptionPane.showInputDialog(null, text);
+            if (input == null)
+                return Double.NaN;
+            if (input.trim().equals(""))
+                return blank;
+            try {
+                double price = Double.parseDouble(input);
+                if (price >= 0D)
+                    return price;
+                BookStore.error("Please only enter a price that is non-negative");
+            } catch (NumberFormatException e) {
+                BookStore.error("Please only enter a double for the price");
+            }
+        }
+    }
+    
     /**
      * Removes the specified string from the stack string including
      * every character after the specified needle
@@ -272,33 +485,50 @@ public class BookStore {
     public static void display(String title, Book[] library) {
         if (BookStore.isLibraryEmpty()) {
             BookStore.message("There are no books added to display");
-        } else {
-            StringBuilder b = new StringBuilder(title);
-            b.append(":\n\n");
-            for (Book book : library) {
-                if (book != null)
-                    b.append(book.toString()).append("\n");
+        } else if (BookStore.headless) {
+            try {
+                BookStore.RENDERER.renderAll(title, library, BookStore.OUT);
+                BookStore.OUT.flush();
+            } catch (IOException e) {
+                System.out.println("Error writing books: " + e.getMessage());
             }
-            BookStore.message(b.toString());
+        } else {
+            // The table only formats the rows that are scrolled into view
+            JTable table = new JTable(new BookTableModel(library));
+            table.setFillsViewportHeight(true);
+            JScrollPane pane = new JScrollPane(table);
+            pane.setPreferredSize(new Dimension(600, 300));
+            JOptionPane.showMessageDialog
+                            (null, pane, title, JOptionPane.INFORMATION_MESSAGE);
         }
     }
     
     /**
-     * Displays a dialog box with an error symbol to the user
+     * Displays a dialog box with an error symbol to the user, or prints
+     * the message when running headless
      * 
      * @param message The message to be displayed to the user
      */
     public static void error(String message) {
+        if (BookStore.headless) {
+            System.out.println("Error: " + message);
+            return;
+        }
         JOptionPane.showMessageDialog
                             (null, message, "Error", JOptionPane.ERROR_MESSAGE);
     }
     
     /**
-     * Displays a dialog box with an information symbol to the user
+     * Displays a dialog box with an information symbol to the user, or prints
+     * the message when running headless
      * 
      * @param message The message to be displayed to the user
      */
     public static void message(String message) {
+        if (BookStore.headless) {
+            System.out.println(message);
+            return;
+        }
         JOptionPane.showMessageDialog
                             (null, message, "Message", JOptionPane.INFORMATION_MESSAGE);
     }
@@ -310,11 +540,7 @@ public class BookStore {
      * @return - Whether or not a book with the specified id exists in the library
      */
     public static boolean exists(int id) {
-        for (Book b : BookStore.LIBRARY) {
-            if (b != null && b.getId() == id)
-                return true;
-        }
-        return false;
+        return BookStore.LIBRARY.exists(id);
     }
     
     /**
@@ -323,10 +549,7 @@ public class BookStore {
      * @return - Whether or not the library contains any Book Objects
      */
     public static boolean isLibraryEmpty() {
-        for (Book b : BookStore.LIBRARY)
-            if (b != null)
-                return false;
-        return true;
+        return BookStore.LIBRARY.isEmpty();
     }
     
 }
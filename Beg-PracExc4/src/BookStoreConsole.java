@@ -0,0 +1,259 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * File: BookStoreConsole.java
+ * Date: 24/05/2017
+ * Notes: Text front end for the book store that reads one command per line
+ * and writes the results instead of showing dialogs, so the store can be
+ * scripted and benchmarked. Books are checked with BookStore.validate() and
+ * written in the same format as Book.toString().
+ *
+ * Commands:
+ *   add id,title,author,price   (the same row format as the CSV import)
+ *   sort                        (display books by price)
+ *   search title [--i]          (search titles, --i ignores case)
+ *   query author,min,max        (blank fields match everything)
+ *   list                        (display all books)
+ *   exit
+ * Blank lines and lines starting with # are ignored.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class BookStoreConsole {
+
+    /**
+     * The catalogue commands are run against
+     */
+    private final Catalogue catalogue;
+
+    /**
+     * Where results are written
+     */
+    private final Appendable out;
+
+    /**
+     * The file added books are saved to, null if they arent saved
+     */
+    private final CatalogueFile store;
+
+    /**
+     * Writes books to the output
+     */
+    private final BookRenderer renderer = new BookRenderer();
+
+    /**
+     * The amount of commands that have been run
+     */
+    private long commands;
+
+    /**
+     * The main constructor for the BookStoreConsole Object
+     *
+     * @param catalogue The catalogue commands are run against
+     * @param out Where results are written
+     * @param store The file added books are saved to, null if they arent saved
+     */
+    public BookStoreConsole(Catalogue catalogue, Appendable out, CatalogueFile store) {
+        this.catalogue = catalogue;
+        this.out = out;
+        this.store = store;
+    }
+
+    /**
+     * Runs every command read until the end of the input or an exit command
+     *
+     * @param in Where commands are read from
+     * @return - Whether or not an exit command was read
+     * @throws IOException - Thrown if the input or output fails
+     */
+    public boolean run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!this.execute(line))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs a single command
+     *
+     * @param line The command to be run
+     * @return - False if the command was exit, otherwise true
+     * @throws IOException - Thrown if the output fails
+     */
+    public boolean execute(String line) throws IOException {
+        String command = line.trim();
+        if (command.isEmpty() || command.startsWith("#"))
+            return true;
+        this.commands++;
+        int space = command.indexOf(' ');
+        String name = (space < 0 ? command : command.substring(0, space)).toLowerCase();
+        String rest = space < 0 ? "" : command.substring(space + 1).trim();
+        if (name.equals("add")) {
+            this.add(rest);
+        } else if (name.equals("sort")) {
+            this.display("Sorted Library", this.catalogue.sortedByPrice());
+        } else if (name.equals("search")) {
+            this.search(rest);
+        } else if (name.equals("query")) {
+            this.query(rest);
+        } else if (name.equals("list")) {
+            this.display("Library", this.catalogue.toArray());
+        } else if (name.equals("exit")) {
+            return false;
+        } else {
+            this.line("Error: Unknown command " + name);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the amount of commands that have been run, not counting blank lines and comments
+     *
+     * @return - The amount of commands run
+     */
+    public long getCommands() {
+        return this.commands;
+    }
+
+    /**
+     * Adds a book from a row in the CSV import format
+     *
+     * @param row The row describing the book
+     * @throws IOException - Thrown if the output fails
+     */
+    private void add(String row) throws IOException {
+        Book book;
+        try {
+            book = BookImporter.parse(row, ',');
+        } catch (IllegalArgumentException e) {
+            this.line("Error: " + e.getMessage());
+            return;
+        }
+        if (!this.catalogue.add(book)) {
+            this.line("Error: That ID already exists, please enter another");
+            return;
+        }
+        if (this.store != null)
+            this.store.append(book);
+        this.out.append("Book ID: ");
+        this.out.append(Integer.toString(book.getId()));
+        this.line(" was added to the library");
+    }
+
+    /**
+     * Searches titles the same way as BookStore.search()
+     *
+     * @param text The title to search for, optionally followed by --i
+     * @throws IOException - Thrown if the output fails
+     */
+    private void search(String text) throws IOException {
+        boolean ci = false;
+        if (text.contains(" --i")) {
+            ci = true;
+            text = BookStore.remove(text, " --i").trim();
+        }
+        if (text.isEmpty() || text.equals("--i")) {
+            this.line("Error: Please make sure you enter something for the title to search for");
+            return;
+        }
+        Book[] found = this.catalogue.search(text, ci);
+        if (found.length == 0)
+            this.line("The title does not exist in the collection");
+        else
+            this.display("Book Details", found);
+    }
+
+    /**
+     * Finds books by author and price range
+     *
+     * @param row The author, lowest and highest price separated by commas
+     * @throws IOException - Thrown if the output fails
+     */
+    private void query(String row) throws IOException {
+        List<String> fields = BookImporter.split(row, ',');
+        while (fields.size() < 3)
+            fields.add("");
+        String author = fields.get(0).trim();
+        double min, max;
+        try {
+            min = fields.get(1).trim().isEmpty() ? 0D : Double.parseDouble(fields.get(1).trim());
+            max = fields.get(2).trim().isEmpty() ? Double.MAX_VALUE : Double.parseDouble(fields.get(2).trim());
+        } catch (NumberFormatException e) {
+            this.line("Error: Please only enter a double for the price");
+            return;
+        }
+        Book[] found = this.catalogue.query(author.isEmpty() ? null : author, min, max);
+        if (found.length == 0)
+            this.line("No books match the author and price range");
+        else
+            this.display("Book Details", found);
+    }
+
+    /**
+     * Writes the books under a heading, the same as BookStore.display()
+     *
+     * @param title The heading
+     * @param books The books to be written
+     * @throws IOException - Thrown if the output fails
+     */
+    private void display(String title, Book[] books) throws IOException {
+        if (this.catalogue.isEmpty())
+            this.line("There are no books added to display");
+        else
+            this.renderer.renderAll(title, books, this.out);
+    }
+
+    /**
+     * Writes the text followed by a new line
+     *
+     * @param text The text to be written
+     * @throws IOException - Thrown if the output fails
+     */
+    private void line(String text) throws IOException {
+        this.out.append(text).append('\n');
+    }
+
+    /**
+     * A Writer that throws away everything written to it, used to time
+     * commands without the cost of the output
+     */
+    public static class Discard extends Writer {
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void write(int c) {
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+        }
+
+        @Override
+        public Writer append(CharSequence text) {
+            return this;
+        }
+
+        @Override
+        public Writer append(char c) {
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * File: BookStoreService.java
+ * Date: 24/05/2017
+ * Notes: Thread safe wrapper around a Catalogue so several clerks can use the
+ * same library at once. Adding books takes the write lock so every change is
+ * seen in one order. Searches, queries and sorted displays share the read
+ * lock so they run side by side, after any lazily built indexes have been
+ * caught up under the write lock. The cheap ID and count checks use an
+ * optimistic read that only falls back to the read lock if a write happened.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class BookStoreService {
+
+    /**
+     * The catalogue being shared
+     */
+    private final Catalogue catalogue;
+
+    /**
+     * Guards every access to the catalogue
+     */
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * The main constructor for the BookStoreService Object
+     *
+     * @param catalogue The catalogue to be shared, which must only be used through this service
+     */
+    public BookStoreService(Catalogue catalogue) {
+        this.catalogue = catalogue;
+    }
+
+    /**
+     * Constructs the BookStoreService Object around a new empty catalogue
+     */
+    public BookStoreService() {
+        this(new Catalogue());
+    }
+
+    /**
+     * Adds a book after checking it against the same rules as BookStore.addBook()
+     *
+     * @param book The book to be added
+     * @return - The reason the book wasnt added, or null if it was
+     */
+    public String addBook(Book book) {
+        String error = BookStore.validate(book.getId(), book.getTitle(), book.getAuthor(), book.getPrice());
+        if (error != null)
+            return error;
+        long stamp = this.lock.writeLock();
+        try {
+            if (!this.catalogue.add(book))
+                return "ID " + book.getId() + " already exists";
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a book with the specified ID exists
+     *
+     * @param id The ID to look up
+     * @return - Whether or not a book with the ID exists
+     */
+    public boolean exists(int id) {
+        long stamp = this.lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                boolean found = this.catalogue.exists(id);
+                if (this.lock.validate(stamp))
+                    return found;
+            } catch (RuntimeException e) {
+                // The index was resized part way through the read, retry with the lock
+            }
+        }
+        stamp = this.lock.readLock();
+        try {
+            return this.catalogue.exists(id);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets the amount of books in the catalogue
+     *
+     * @return - The amount of books
+     */
+    public int size() {
+        long stamp = this.lock.tryOptimisticRead();
+        int size = this.catalogue.size();
+        if (stamp != 0L && this.lock.validate(stamp))
+            return size;
+        stamp = this.lock.readLock();
+        try {
+            return this.catalogue.size();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Searches for books whose title contains the query
+     *
+     * @param query The text to search titles for
+     * @param ci Whether or not the search is case insensitive
+     * @return - The matching books in the order they were added
+     */
+    public Book[] search(String query, boolean ci) {
+        long stamp = this.readIndexed();
+        try {
+            return this.catalogue.search(query, ci);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Finds the books by an author within a price range
+     *
+     * @param author The author of the books ignoring case, or null for any author
+     * @param min The lowest price to include
+     * @param max The highest price to include
+     * @return - The matching books in the order they were added
+     */
+    public Book[] query(String author, double min, double max) {
+        long stamp = this.readIndexed();
+        try {
+            return this.catalogue.query(author, min, max);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets every book ordered by price ascending
+     *
+     * @return - Every book ordered by price
+     */
+    public Book[] sortDisplay() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.catalogue.sortedByPrice();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets every book in the order they were added
+     *
+     * @return - Every book
+     */
+    public Book[] toArray() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.catalogue.toArray();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Takes the read lock once the title and author indexes are up to date,
+     * briefly taking the write lock to index any books added since the last search
+     *
+     * @return - The stamp of the read lock that is held
+     */
+    private long readIndexed() {
+        long stamp = this.lock.readLock();
+        if (this.catalogue.isIndexed())
+            return stamp;
+        long write = this.lock.tryConvertToWriteLock(stamp);
+        if (write == 0L) {
+            this.lock.unlockRead(stamp);
+            write = this.lock.writeLock();
+        }
+        this.catalogue.updateIndexes();
+        return this.lock.tryConvertToReadLock(write);
+    }
+
+}
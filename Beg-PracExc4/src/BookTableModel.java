@@ -0,0 +1,90 @@
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * File: BookTableModel.java
+ * Date: 24/05/2017
+ * Notes: Table model over an array of books. A JTable only asks for the values
+ * of the rows that are visible, so large results are never formatted in full.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class BookTableModel extends AbstractTableModel {
+
+    /**
+     * The version of the serialized form, as table models are Serializable
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The headings of each column
+     */
+    private static final String[] COLUMNS = {"ISBN", "Title", "Author", "Price $"};
+
+    /**
+     * The types of each column, used by the JTable to pick a renderer
+     */
+    private static final Class<?>[] TYPES = {Integer.class, String.class, String.class, Double.class};
+
+    /**
+     * The books being displayed, null entries are skipped
+     */
+    private final Book[] books;
+
+    /**
+     * The main constructor for the BookTableModel Object
+     *
+     * @param library The books to be displayed
+     */
+    public BookTableModel(Book[] library) {
+        int count = 0;
+        for (Book b : library)
+            if (b != null)
+                count++;
+        if (count == library.length) {
+            this.books = library;
+        } else {
+            this.books = new Book[count];
+            count = 0;
+            for (Book b : library)
+                if (b != null)
+                    this.books[count++] = b;
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.books.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return BookTableModel.COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return BookTableModel.COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return BookTableModel.TYPES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Book book = this.books[row];
+        switch (column) {
+            case 0:
+                return book.getId();
+            case 1:
+                return book.getTitle();
+            case 2:
+                return book.getAuthor();
+            default:
+                return book.getPrice();
+        }
+    }
+
+}
@@ -0,0 +1,419 @@
+import java.util.Arrays;
+
+/**
+ * File: Catalogue.java
+ * Date: 24/05/2017
+ * Notes: Stores Book Objects in the order they were added, growing as needed
+ * and keeping an ISBN index so lookups dont need to scan every book. A
+ * catalogue can instead be created with columnar storage, which keeps the
+ * books in a ColumnarCatalogue rather than one Object per book and hands out
+ * views of the rows when books are asked for.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class Catalogue {
+
+    /**
+     * The initial amount of books the catalogue can hold before growing
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * All books in the catalogue in the order they were added, null if the
+     * catalogue is columnar
+     */
+    private Book[] books;
+
+    /**
+     * The columns the books are stored in, null unless the catalogue is columnar
+     */
+    private final ColumnarCatalogue columns;
+
+    /**
+     * The amount of books stored in the catalogue
+     */
+    private int size;
+
+    /**
+     * Maps the ID of every book to its position in the books array
+     */
+    private final IdIndex ids = new IdIndex();
+
+    /**
+     * Keeps the positions of every book ordered by price
+     */
+    private final PriceIndex prices = new PriceIndex();
+
+    /**
+     * Trigram index over the titles of every book
+     */
+    private final TitleIndex titles = new TitleIndex();
+
+    /**
+     * The amount of books, from the start of the catalogue, whose titles have
+     * been indexed. Titles are only indexed when they are first searched so
+     * loading a catalogue doesnt need to read every title
+     */
+    private int indexed;
+
+    /**
+     * Maps each author to the positions of their books
+     */
+    private final AuthorIndex authors = new AuthorIndex();
+
+    /**
+     * The amount of books, from the start of the catalogue, whose authors have
+     * been indexed. Like titles they are only indexed when first queried
+     */
+    private int authorsIndexed;
+
+    /**
+     * The main constructor for the Catalogue Object
+     */
+    public Catalogue() {
+        this(false);
+    }
+
+    /**
+     * Constructs the Catalogue Object with the chosen storage
+     *
+     * @param columnar Whether the books are stored as columns instead of Book Objects
+     */
+    public Catalogue(boolean columnar) {
+        this.columns = columnar ? new ColumnarCatalogue() : null;
+        this.books = columnar ? null : new Book[Catalogue.DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Checks whether or not the books are stored as columns
+     *
+     * @return - Whether or not the catalogue is columnar
+     */
+    public boolean isColumnar() {
+        return this.columns != null;
+    }
+
+    /**
+     * Adds a book to the end of the catalogue
+     *
+     * @param book The book to be added
+     * @return - Whether or not the book was added, false if its ID already exists
+     */
+    public boolean add(Book book) {
+        if (book == null || this.ids.contains(book.getId()))
+            return false;
+        this.ids.put(book.getId(), this.size);
+        this.prices.insert(this.size, book.getPrice());
+        this.store(book.getId(), book, book.getTitle(), book.getAuthor(), book.getPrice());
+        return true;
+    }
+
+    /**
+     * Adds many books to the end of the catalogue at once, skipping any whose
+     * ID already exists. The price index is rebuilt with a single sort
+     * rather than inserting each book into it
+     *
+     * @param bulk The books to be added
+     * @return - The amount of books that were added
+     */
+    public int addAll(Book[] bulk) {
+        this.ensureCapacity(this.size + bulk.length);
+        int added = 0;
+        for (Book book : bulk) {
+            if (book == null || this.ids.contains(book.getId()))
+                continue;
+            this.ids.put(book.getId(), this.size);
+            this.store(book.getId(), book, book.getTitle(), book.getAuthor(), book.getPrice());
+            added++;
+        }
+        if (added > 0)
+            this.rebuildPrices();
+        return added;
+    }
+
+    /**
+     * Adds every book saved in a catalogue file, skipping any whose ID already
+     * exists. A columnar catalogue copies the fields straight from the file
+     * into its columns, so no Book Object is created for any of them
+     *
+     * @param file The file the books are saved in
+     * @return - The amount of books that were added
+     */
+    public int load(CatalogueFile file) {
+        if (this.columns == null)
+            return this.addAll(file.readAll());
+        int count = file.size();
+        this.ensureCapacity(this.size + count);
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            int id = file.idAt(i);
+            if (this.ids.contains(id))
+                continue;
+            this.ids.put(id, this.size);
+            this.store(id, null, file.titleAt(i), file.authorAt(i), file.priceAt(i));
+            added++;
+        }
+        if (added > 0)
+            this.rebuildPrices();
+        return added;
+    }
+
+    /**
+     * Gets the book with the specified ID
+     *
+     * @param id The ID of the book
+     * @return - The book with the specified ID or null if it doesnt exist
+     */
+    public Book get(int id) {
+        int index = this.ids.get(id);
+        return index == IdIndex.MISSING ? null : this.book(index);
+    }
+
+    /**
+     * Gets the book at the specified position in the catalogue
+     *
+     * @param index The position of the book, in the order they were added
+     * @return - The book at the specified position
+     */
+    public Book bookAt(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        return this.book(index);
+    }
+
+    /**
+     * Checks if a book with the specified ID exists in the catalogue
+     *
+     * @param id The ID to look up
+     * @return - Whether or not a book with the ID exists
+     */
+    public boolean exists(int id) {
+        return this.ids.contains(id);
+    }
+
+    /**
+     * Gets the amount of books in the catalogue
+     *
+     * @return - The amount of books in the catalogue
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether or not the catalogue has any books
+     *
+     * @return - Whether or not the catalogue is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Searches for books whose title contains the query, using the title index
+     * to narrow down which books need to be checked
+     *
+     * @param query The text to search titles for
+     * @param ci Whether or not the search is case insensitive
+     * @return - The matching books in the order they were added
+     */
+    public Book[] search(String query, boolean ci) {
+        this.updateIndexes();
+        int[] candidates = this.titles.candidates(query, ci);
+        int count = candidates == null ? this.size : candidates.length;
+        String needle = ci ? query.toUpperCase() : query;
+        Book[] found = new Book[count];
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            int position = candidates == null ? i : candidates[i];
+            // Case insensitive searches check the title the index already upper cased
+            String title = ci ? this.titles.folded(position) : this.title(position);
+            if (title.contains(needle))
+                found[matched++] = this.book(position);
+        }
+        return Arrays.copyOf(found, matched);
+    }
+
+    /**
+     * Finds the books by an author within a price range. The price range is
+     * read from the price index and the author from the author index, and the
+     * two sets of positions are intersected so only matching books are read
+     *
+     * @param author The author of the books ignoring case, or null for any author
+     * @param min The lowest price to include
+     * @param max The highest price to include
+     * @return - The matching books in the order they were added
+     */
+    public Book[] query(String author, double min, double max) {
+        int from = this.prices.lowerBound(min);
+        int to = Math.max(from, this.prices.upperBound(max));
+        Postings byAuthor = null;
+        if (author != null) {
+            this.updateIndexes();
+            byAuthor = this.authors.get(author);
+            if (byAuthor == null)
+                return new Book[0];
+        }
+        int[] found;
+        int count;
+        if (byAuthor != null && byAuthor.size() < to - from) {
+            // Fewer books by the author than in the range so check their prices directly
+            found = new int[byAuthor.size()];
+            count = 0;
+            for (int i = 0; i < byAuthor.size(); i++) {
+                int position = byAuthor.get(i);
+                double price = this.price(position);
+                if (Double.compare(price, min) >= 0 && Double.compare(price, max) <= 0)
+                    found[count++] = position;
+            }
+        } else {
+            count = to - from;
+            found = new int[count];
+            this.prices.positions(from, to, found);
+            Arrays.sort(found);
+            if (byAuthor != null)
+                count = byAuthor.intersect(found, count);
+        }
+        Book[] result = new Book[count];
+        for (int i = 0; i < count; i++)
+            result[i] = this.book(found[i]);
+        return result;
+    }
+
+    /**
+     * Checks whether or not every title and author has been indexed
+     *
+     * @return - Whether or not the title and author indexes are up to date
+     */
+    public boolean isIndexed() {
+        return this.indexed == this.size && this.authorsIndexed == this.size;
+    }
+
+    /**
+     * Indexes the titles and authors of any books added since they were last indexed
+     */
+    public void updateIndexes() {
+        for (; this.indexed < this.size; this.indexed++)
+            this.titles.add(this.indexed, this.title(this.indexed));
+        for (; this.authorsIndexed < this.size; this.authorsIndexed++)
+            this.authors.add(this.authorsIndexed, this.author(this.authorsIndexed));
+    }
+
+    /**
+     * Gets every book in the catalogue ordered by price ascending
+     *
+     * @return - A new array containing every book ordered by price
+     */
+    public Book[] sortedByPrice() {
+        int[] order = new int[this.size];
+        this.prices.positions(0, this.size, order);
+        Book[] sorted = new Book[this.size];
+        for (int i = 0; i < this.size; i++)
+            sorted[i] = this.book(order[i]);
+        return sorted;
+    }
+
+    /**
+     * Gets a copy of every book in the catalogue in the order they were added
+     *
+     * @return - A new array containing every book
+     */
+    public Book[] toArray() {
+        if (this.columns == null)
+            return Arrays.copyOf(this.books, this.size);
+        Book[] all = new Book[this.size];
+        for (int i = 0; i < this.size; i++)
+            all[i] = this.columns.bookAt(i);
+        return all;
+    }
+
+    /**
+     * Stores a book at the end of the catalogue, as the Book Object or as a
+     * row of the columns. The ID must already be in the ID index
+     *
+     * @param id The ID of the book
+     * @param book The book, or null if it is only stored as columns
+     * @param title The title of the book
+     * @param author The author of the book
+     * @param price The price of the book
+     */
+    private void store(int id, Book book, String title, String author, double price) {
+        if (this.columns != null) {
+            this.columns.add(id, title, author, price);
+        } else {
+            if (this.size == this.books.length)
+                this.books = Arrays.copyOf(this.books, this.books.length * 2);
+            this.books[this.size] = book;
+        }
+        this.size++;
+    }
+
+    /**
+     * Makes sure the storage and ID index can hold the amount of books without growing
+     *
+     * @param needed The amount of books expected to be stored
+     */
+    private void ensureCapacity(int needed) {
+        if (this.columns != null)
+            this.columns.ensureCapacity(needed);
+        else if (needed > this.books.length)
+            this.books = Arrays.copyOf(this.books, Math.max(needed, this.books.length * 2));
+        this.ids.ensureCapacity(needed);
+    }
+
+    /**
+     * Rebuilds the price index from the prices of every book with a single sort
+     */
+    private void rebuildPrices() {
+        if (this.columns != null) {
+            this.prices.rebuild(this.columns.prices(), this.size);
+            return;
+        }
+        double[] all = new double[this.size];
+        for (int i = 0; i < this.size; i++)
+            all[i] = this.books[i].getPrice();
+        this.prices.rebuild(all, this.size);
+    }
+
+    /**
+     * Gets the book at a position, a view of the row if the catalogue is columnar
+     *
+     * @param position The position of the book
+     * @return - The book at the position
+     */
+    private Book book(int position) {
+        return this.columns == null ? this.books[position] : this.columns.bookAt(position);
+    }
+
+    /**
+     * Gets the title of the book at a position without creating a view
+     *
+     * @param position The position of the book
+     * @return - The title of the book
+     */
+    private String title(int position) {
+        return this.columns == null ? this.books[position].getTitle() : this.columns.titleAt(position);
+    }
+
+    /**
+     * Gets the author of the book at a position without creating a view
+     *
+     * @param position The position of the book
+     * @return - The author of the book
+     */
+    private String author(int position) {
+        return this.columns == null ? this.books[position].getAuthor() : this.columns.authorAt(position);
+    }
+
+    /**
+     * Gets the price of the book at a position without creating a view
+     *
+     * @param position The position of the book
+     * @return - The price of the book
+     */
+    private double price(int position) {
+        return this.columns == null ? this.books[position].getPrice() : this.columns.priceAt(position);
+    }
+
+}
@@ -0,0 +1,367 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * File: CatalogueFile.java
+ * Date: 24/05/2017
+ * Notes: Saves books in a fixed layout binary file that is memory mapped, so
+ * loading a catalogue only reads the records it needs rather than parsing the
+ * whole file. Titles and authors are kept in a separate string heap file.
+ *
+ * Records file: a header of magic, version, record count and heap size (all
+ * ints) followed by one record per book of an int ID, a double price and the
+ * int offsets of the title and author in the heap.
+ * Heap file: each string is an int byte length followed by its UTF-8 bytes.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class CatalogueFile implements Closeable {
+
+    /**
+     * Marks the start of a records file ("BKS1")
+     */
+    private static final int MAGIC = 0x424B5331;
+
+    /**
+     * The version of the record layout
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size in bytes of the records file header
+     */
+    private static final int HEADER = 16;
+
+    /**
+     * The size in bytes of a single record
+     */
+    private static final int RECORD = 20;
+
+    /**
+     * The positions in the header of the record count and heap size
+     */
+    private static final int COUNT_AT = 8, HEAP_AT = 12;
+
+    /**
+     * The initial amount of records and heap bytes that are mapped
+     */
+    private static final int INITIAL_RECORDS = 1024, INITIAL_HEAP = 64 * 1024;
+
+    /**
+     * The open files for the records and the string heap
+     */
+    private final RandomAccessFile recordFile, heapFile;
+
+    /**
+     * The mapped regions of the records and the string heap
+     */
+    private MappedByteBuffer records, heap;
+
+    /**
+     * The amount of records and used heap bytes in the files
+     */
+    private int count, heapSize;
+
+    /**
+     * The main constructor for the CatalogueFile Object, creating the files if they dont exist
+     *
+     * @param path The location of the records file, the heap is saved next to it with ".heap" added
+     * @throws IOException - Thrown if the files cant be opened or arent catalogue files
+     */
+    public CatalogueFile(String path) throws IOException {
+        this.recordFile = new RandomAccessFile(path, "rw");
+        this.heapFile = new RandomAccessFile(path + ".heap", "rw");
+        try {
+            boolean created = this.recordFile.length() == 0L;
+            this.records = CatalogueFile.map(this.recordFile, Math.max(this.recordFile.length(),
+                    CatalogueFile.HEADER + (long) CatalogueFile.INITIAL_RECORDS * CatalogueFile.RECORD));
+            this.heap = CatalogueFile.map(this.heapFile,
+                    Math.max(this.heapFile.length(), CatalogueFile.INITIAL_HEAP));
+            if (created) {
+                this.records.putInt(0, CatalogueFile.MAGIC);
+                this.records.putInt(4, CatalogueFile.VERSION);
+                this.writeHeader();
+            } else if (this.records.getInt(0) != CatalogueFile.MAGIC
+                    || this.records.getInt(4) != CatalogueFile.VERSION) {
+                throw new IOException(path + " is not a catalogue file");
+            }
+            this.count = this.records.getInt(CatalogueFile.COUNT_AT);
+            this.heapSize = this.records.getInt(CatalogueFile.HEAP_AT);
+            // A damaged header would otherwise only fail later when a record past the end is read
+            if (this.count < 0 || CatalogueFile.HEADER + (long) this.count * CatalogueFile.RECORD > this.recordFile.length())
+                throw new IOException(path + " is corrupt, it has fewer records than its header counts");
+            if (this.heapSize < 0 || this.heapSize > this.heapFile.length())
+                throw new IOException(path + " is corrupt, its string heap is smaller than its header says");
+        } catch (IOException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the amount of books saved in the file
+     *
+     * @return - The amount of books saved
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Reads the book saved at the specified position. Only the ID and price are
+     * read straight away, the title and author are read when they are first used
+     *
+     * @param index The position of the book in the file
+     * @return - The book saved at the position
+     */
+    public Book read(int index) {
+        int at = this.recordAt(index);
+        return new MappedBook(this, this.records.getInt(at), this.records.getDouble(at + 4),
+                this.records.getInt(at + 12), this.records.getInt(at + 16));
+    }
+
+    /**
+     * Reads the ID of the book at the specified position without creating a Book
+     *
+     * @param index The position of the book in the file
+     * @return - The ID of the book
+     */
+    public int idAt(int index) {
+        return this.records.getInt(this.recordAt(index));
+    }
+
+    /**
+     * Reads the price of the book at the specified position without creating a Book
+     *
+     * @param index The position of the book in the file
+     * @return - The price of the book
+     */
+    public double priceAt(int index) {
+        return this.records.getDouble(this.recordAt(index) + 4);
+    }
+
+    /**
+     * Reads the title of the book at the specified position without creating a Book
+     *
+     * @param index The position of the book in the file
+     * @return - The title of the book
+     */
+    public String titleAt(int index) {
+        return this.readString(this.records.getInt(this.recordAt(index) + 12));
+    }
+
+    /**
+     * Reads the author of the book at the specified position without creating a Book
+     *
+     * @param index The position of the book in the file
+     * @return - The author of the book
+     */
+    public String authorAt(int index) {
+        return this.readString(this.records.getInt(this.recordAt(index) + 16));
+    }
+
+    /**
+     * Reads every book saved in the file
+     *
+     * @return - The books saved in the order they were appended
+     */
+    public Book[] readAll() {
+        Book[] books = new Book[this.count];
+        for (int i = 0; i < this.count; i++)
+            books[i] = this.read(i);
+        return books;
+    }
+
+    /**
+     * Appends a book to the end of the file
+     *
+     * @param book The book to be saved
+     * @throws IOException - Thrown if the files couldnt be grown
+     */
+    public void append(Book book) throws IOException {
+        int title = this.appendString(book.getTitle());
+        int author = this.appendString(book.getAuthor());
+        long end = CatalogueFile.HEADER + (long) (this.count + 1) * CatalogueFile.RECORD;
+        if (end > this.records.capacity())
+            this.records = CatalogueFile.map(this.recordFile, this.records.capacity() * 2L);
+        int at = CatalogueFile.HEADER + this.count * CatalogueFile.RECORD;
+        this.records.putInt(at, book.getId());
+        this.records.putDouble(at + 4, book.getPrice());
+        this.records.putInt(at + 12, title);
+        this.records.putInt(at + 16, author);
+        this.count++;
+        // The header is written last so a half written record is never counted
+        this.writeHeader();
+    }
+
+    /**
+     * Writes any changes in the mapped regions through to the disk
+     */
+    public void force() {
+        this.heap.force();
+        this.records.force();
+    }
+
+    /**
+     * Writes any changes to the disk and closes the files
+     *
+     * @throws IOException - Thrown if the files couldnt be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.records != null && this.heap != null)
+            this.force();
+        try {
+            this.recordFile.close();
+        } finally {
+            this.heapFile.close();
+        }
+    }
+
+    /**
+     * Appends a string to the end of the heap
+     *
+     * @param text The string to be saved
+     * @return - The offset of the string in the heap
+     * @throws IOException - Thrown if the heap couldnt be grown
+     */
+    private int appendString(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        long end = (long) this.heapSize + 4 + bytes.length;
+        if (end > Integer.MAX_VALUE)
+            throw new IOException("The catalogue string heap is full");
+        if (end > this.heap.capacity())
+            this.heap = CatalogueFile.map(this.heapFile, Math.max(end, this.heap.capacity() * 2L));
+        int offset = this.heapSize;
+        this.heap.putInt(offset, bytes.length);
+        ByteBuffer to = this.heap.duplicate(); // So the position of the mapped region isnt moved
+        to.position(offset + 4);
+        to.put(bytes);
+        this.heapSize = (int) end;
+        return offset;
+    }
+
+    /**
+     * Reads the string saved at the offset in the heap
+     *
+     * @param offset The offset of the string
+     * @return - The saved string
+     */
+    private String readString(int offset) {
+        int length = offset < 0 || offset > this.heapSize - 4 ? -1 : this.heap.getInt(offset);
+        if (length < 0 || length > this.heapSize - offset - 4)
+            throw new IllegalStateException("The catalogue string heap is corrupt at " + offset);
+        byte[] bytes = new byte[length];
+        ByteBuffer from = this.heap.duplicate();
+        from.position(offset + 4);
+        from.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets where the record of a book starts in the records file
+     *
+     * @param index The position of the book in the file
+     * @return - The offset of the record
+     */
+    private int recordAt(int index) {
+        if (index < 0 || index >= this.count)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.count);
+        return CatalogueFile.HEADER + index * CatalogueFile.RECORD;
+    }
+
+    /**
+     * Writes the record count and heap size into the header
+     */
+    private void writeHeader() {
+        this.records.putInt(CatalogueFile.COUNT_AT, this.count);
+        this.records.putInt(CatalogueFile.HEAP_AT, this.heapSize);
+    }
+
+    /**
+     * Maps the file into memory, growing the file if it is smaller than the size
+     *
+     * @param file The file to be mapped
+     * @param size The amount of bytes to map
+     * @return - The mapped region of the file
+     * @throws IOException - Thrown if the file couldnt be mapped
+     */
+    private static MappedByteBuffer map(RandomAccessFile file, long size) throws IOException {
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("The catalogue file is too large to map");
+        return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, size);
+    }
+
+    /**
+     * A book read from the file, whose title and author are only read from
+     * the heap the first time they are used
+     */
+    private static class MappedBook extends Book {
+
+        /**
+         * The file the book was read from
+         */
+        private final CatalogueFile file;
+
+        /**
+         * The offsets in the heap of the title and author
+         */
+        private final int titleOffset, authorOffset;
+
+        /**
+         * Whether or not the title and author have been read yet
+         */
+        private boolean titleRead, authorRead;
+
+        /**
+         * The main constructor for the MappedBook Object
+         *
+         * @param file The file the book was read from
+         * @param id The ID of the book
+         * @param price The price of the book
+         * @param titleOffset The offset in the heap of the title
+         * @param authorOffset The offset in the heap of the author
+         */
+        private MappedBook(CatalogueFile file, int id, double price, int titleOffset, int authorOffset) {
+            super(id, null, null, price);
+            this.file = file;
+            this.titleOffset = titleOffset;
+            this.authorOffset = authorOffset;
+        }
+
+        @Override
+        public String getTitle() {
+            if (!this.titleRead)
+                this.setTitle(this.file.readString(this.titleOffset));
+            return super.getTitle();
+        }
+
+        @Override
+        public void setTitle(String title) {
+            if (title != null)
+                this.titleRead = true;
+            super.setTitle(title);
+        }
+
+        @Override
+        public String getAuthor() {
+            if (!this.authorRead)
+                this.setAuthor(this.file.readString(this.authorOffset));
+            return super.getAuthor();
+        }
+
+        @Override
+        public void setAuthor(String author) {
+            if (author != null)
+                this.authorRead = true;
+            super.setAuthor(author);
+        }
+    }
+
+}
@@ -0,0 +1,401 @@
+import java.util.Arrays;
+
+/**
+ * File: ColumnarCatalogue.java
+ * Date: 24/05/2017
+ * Notes: Optional way of storing a very large catalogue as columns of
+ * primitives instead of one Object per book, used by a Catalogue created
+ * with columnar storage. IDs and prices are kept in int and double arrays,
+ * and each author is only stored once in a dictionary with every book
+ * holding the int code of its author. Sorting and scanning prices only reads
+ * the price column, and Book Objects are only created as lightweight read
+ * only views when a book is actually needed. Rows are addressed by the order
+ * they were added, the Catalogue keeps the ID index.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class ColumnarCatalogue {
+
+    /**
+     * The initial amount of rows the columns can hold before growing
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The ID column
+     */
+    private int[] ids;
+
+    /**
+     * The price column
+     */
+    private double[] prices;
+
+    /**
+     * The author code column, each code is an index into authorNames
+     */
+    private int[] authorCodes;
+
+    /**
+     * The title column
+     */
+    private String[] titles;
+
+    /**
+     * The amount of rows in the columns
+     */
+    private int size;
+
+    /**
+     * The dictionary of every distinct author, indexed by code
+     */
+    private String[] authorNames = new String[ColumnarCatalogue.DEFAULT_CAPACITY];
+
+    /**
+     * The amount of distinct authors in the dictionary
+     */
+    private int authorCount;
+
+    /**
+     * Open addressing table from the hash of an author to its code, offset by
+     * 1 so that 0 marks an empty slot (the length must be a power of 2)
+     */
+    private int[] authorSlots = new int[ColumnarCatalogue.DEFAULT_CAPACITY * 2];
+
+    /**
+     * The main constructor for the ColumnarCatalogue Object
+     */
+    public ColumnarCatalogue() {
+        this.ids = new int[ColumnarCatalogue.DEFAULT_CAPACITY];
+        this.prices = new double[ColumnarCatalogue.DEFAULT_CAPACITY];
+        this.authorCodes = new int[ColumnarCatalogue.DEFAULT_CAPACITY];
+        this.titles = new String[ColumnarCatalogue.DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Adds a book to the end of the columns. The caller checks that its ID is
+     * unique, as the Catalogue does with its ID index
+     *
+     * @param id The ID of the book
+     * @param title The title of the book
+     * @param author The author of the book
+     * @param price The price of the book
+     * @return - The row of the book
+     */
+    public int add(int id, String title, String author, double price) {
+        if (this.size == this.ids.length)
+            this.grow(this.size * 2);
+        this.ids[this.size] = id;
+        this.prices[this.size] = price;
+        this.titles[this.size] = title;
+        this.authorCodes[this.size] = this.code(author);
+        return this.size++;
+    }
+
+    /**
+     * Makes sure the columns can hold the specified amount of rows without growing
+     *
+     * @param expected The amount of rows expected to be stored
+     */
+    public void ensureCapacity(int expected) {
+        if (expected > this.ids.length)
+            this.grow(Math.max(expected, this.ids.length * 2));
+    }
+
+    /**
+     * Gets a view of the book in the specified row
+     *
+     * @param row The row of the book, in the order they were added
+     * @return - A view of the book
+     */
+    public Book bookAt(int row) {
+        if (row < 0 || row >= this.size)
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + this.size);
+        return new View(this, row);
+    }
+
+    /**
+     * Gets the title of the book in the specified row without creating a view
+     *
+     * @param row The row of the book
+     * @return - The title of the book
+     */
+    public String titleAt(int row) {
+        return this.titles[row];
+    }
+
+    /**
+     * Gets the author of the book in the specified row without creating a view
+     *
+     * @param row The row of the book
+     * @return - The author of the book
+     */
+    public String authorAt(int row) {
+        return this.authorNames[this.authorCodes[row]];
+    }
+
+    /**
+     * Gets the price of the book in the specified row without creating a view
+     *
+     * @param row The row of the book
+     * @return - The price of the book
+     */
+    public double priceAt(int row) {
+        return this.prices[row];
+    }
+
+    /**
+     * Gets the backing price column, only the first size() are used
+     *
+     * @return - The backing price column
+     */
+    double[] prices() {
+        return this.prices;
+    }
+
+    /**
+     * Gets the amount of books stored
+     *
+     * @return - The amount of books stored
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the amount of distinct authors stored in the dictionary
+     *
+     * @return - The amount of distinct authors
+     */
+    public int authorCount() {
+        return this.authorCount;
+    }
+
+    /**
+     * Counts the books priced within the range by scanning the price column
+     *
+     * @param min The lowest price to include
+     * @param max The highest price to include
+     * @return - The amount of books within the range
+     */
+    public int countInRange(double min, double max) {
+        int count = 0;
+        for (int i = 0; i < this.size; i++)
+            if (this.prices[i] >= min && this.prices[i] <= max)
+                count++;
+        return count;
+    }
+
+    /**
+     * Gets the rows ordered by price ascending, with equal prices kept in the
+     * order they were added. Only the price column is read while sorting
+     *
+     * @return - Every row ordered by price
+     */
+    public int[] sortedByPrice() {
+        int[] order = new int[this.size];
+        for (int i = 0; i < this.size; i++)
+            order[i] = i;
+        ColumnarCatalogue.mergeSort(order, new int[this.size], 0, this.size, this.prices);
+        return order;
+    }
+
+    /**
+     * Gets a view of every book ordered by price ascending
+     *
+     * @return - A view of every book ordered by price
+     */
+    public Book[] sortedBooks() {
+        int[] order = this.sortedByPrice();
+        Book[] books = new Book[order.length];
+        for (int i = 0; i < order.length; i++)
+            books[i] = new View(this, order[i]);
+        return books;
+    }
+
+    /**
+     * Gets the code of the author, adding them to the dictionary if they are new
+     *
+     * @param author The author to look up
+     * @return - The code of the author
+     */
+    private int code(String author) {
+        int mask = this.authorSlots.length - 1;
+        int slot = ColumnarCatalogue.hash(author) & mask;
+        while (this.authorSlots[slot] != 0) {
+            int code = this.authorSlots[slot] - 1;
+            if (author == null ? this.authorNames[code] == null : author.equals(this.authorNames[code]))
+                return code;
+            slot = (slot + 1) & mask;
+        }
+        int next = this.authorCount++;
+        if (next == this.authorNames.length)
+            this.authorNames = Arrays.copyOf(this.authorNames, next * 2);
+        this.authorNames[next] = author;
+        this.authorSlots[slot] = next + 1;
+        // Keep the load factor at or below 0.5 so probe chains stay short
+        if (this.authorCount * 2 > this.authorSlots.length)
+            this.rehashAuthors(this.authorSlots.length * 2);
+        return next;
+    }
+
+    /**
+     * Puts every author code into a table of the new capacity
+     *
+     * @param capacity The new amount of slots (must be a power of 2)
+     */
+    private void rehashAuthors(int capacity) {
+        this.authorSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < this.authorCount; code++) {
+            int slot = ColumnarCatalogue.hash(this.authorNames[code]) & mask;
+            while (this.authorSlots[slot] != 0)
+                slot = (slot + 1) & mask;
+            this.authorSlots[slot] = code + 1;
+        }
+    }
+
+    /**
+     * Spreads the bits of the hash code of an author
+     *
+     * @param author The author, which may be null
+     * @return - The hashed author
+     */
+    private static int hash(String author) {
+        int h = (author == null ? 0 : author.hashCode()) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Grows every column to hold at least the specified amount of rows
+     *
+     * @param capacity The amount of rows needed
+     */
+    private void grow(int capacity) {
+        if (capacity <= this.ids.length)
+            return;
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.prices = Arrays.copyOf(this.prices, capacity);
+        this.authorCodes = Arrays.copyOf(this.authorCodes, capacity);
+        this.titles = Arrays.copyOf(this.titles, capacity);
+    }
+
+    /**
+     * Stable merge sort of the rows between from (inclusive) and to (exclusive) by price
+     *
+     * @param rows The rows being sorted
+     * @param temp Scratch space the same length as rows
+     * @param from The first index to sort
+     * @param to The index after the last to sort
+     * @param prices The price of each row
+     */
+    private static void mergeSort(int[] rows, int[] temp, int from, int to, double[] prices) {
+        if (to - from < 16) {
+            // Insertion sort is quicker for short runs and is also stable
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && Double.compare(prices[rows[j]], prices[row]) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        ColumnarCatalogue.mergeSort(rows, temp, from, mid, prices);
+        ColumnarCatalogue.mergeSort(rows, temp, mid, to, prices);
+        if (Double.compare(prices[rows[mid - 1]], prices[rows[mid]]) <= 0)
+            return; // Already in order
+        System.arraycopy(rows, from, temp, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to)
+            rows[k++] = Double.compare(prices[temp[j]], prices[temp[i]]) < 0 ? temp[j++] : temp[i++];
+        while (i < mid)
+            rows[k++] = temp[i++];
+        while (j < to)
+            rows[k++] = temp[j++];
+    }
+
+    /**
+     * A read only Book that reads a row of the columns rather than its own
+     * fields. Changing a book would have to update the indexes of the
+     * Catalogue it belongs to, so the setters change nothing
+     */
+    private static class View extends Book {
+
+        /**
+         * Supplies the default title and author for rows that dont have one
+         */
+        private static final Book DEFAULTS = new Book();
+
+        /**
+         * The columns the book is stored in
+         */
+        private final ColumnarCatalogue columns;
+
+        /**
+         * The row of the book
+         */
+        private final int row;
+
+        /**
+         * The main constructor for the View Object
+         *
+         * @param columns The columns the book is stored in
+         * @param row The row of the book
+         */
+        private View(ColumnarCatalogue columns, int row) {
+            super(columns.ids[row], null, null, 0D);
+            this.columns = columns;
+            this.row = row;
+        }
+
+        @Override
+        public String getTitle() {
+            String title = this.columns.titles[this.row];
+            return title == null ? View.DEFAULTS.getTitle() : title;
+        }
+
+        /**
+         * Does nothing, as views are read only
+         *
+         * @param title Ignored
+         */
+        @Override
+        public void setTitle(String title) {
+        }
+
+        @Override
+        public String getAuthor() {
+            String author = this.columns.authorNames[this.columns.authorCodes[this.row]];
+            return author == null ? View.DEFAULTS.getAuthor() : author;
+        }
+
+        /**
+         * Does nothing, as views are read only
+         *
+         * @param author Ignored
+         */
+        @Override
+        public void setAuthor(String author) {
+        }
+
+        @Override
+        public double getPrice() {
+            return this.columns.prices[this.row];
+        }
+
+        /**
+         * Does nothing, as views are read only
+         *
+         * @param price Ignored
+         */
+        @Override
+        public void setPrice(double price) {
+        }
+    }
+
+}
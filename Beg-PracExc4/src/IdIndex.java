@@ -0,0 +1,153 @@
+/**
+ * File: IdIndex.java
+ * Date: 24/05/2017
+ * Notes: Open addressing hash map from a primitive int key to a primitive int
+ * value, used so that ISBN lookups dont need to box into Integer Objects.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class IdIndex {
+
+    /**
+     * The value returned by get() when a key has not been put into the index
+     */
+    public static final int MISSING = -1;
+
+    /**
+     * The initial amount of slots in the table (must be a power of 2)
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The keys stored in each slot of the table
+     */
+    private int[] keys;
+
+    /**
+     * The values stored in each slot of the table, offset by 1 so that 0 marks an empty slot
+     */
+    private int[] values;
+
+    /**
+     * The amount of keys stored in the table
+     */
+    private int size;
+
+    /**
+     * The main constructor for the IdIndex Object
+     */
+    public IdIndex() {
+        this.keys = new int[IdIndex.DEFAULT_CAPACITY];
+        this.values = new int[IdIndex.DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Gets the value stored against the key
+     *
+     * @param key The key to look up
+     * @return - The value stored against the key or MISSING if it isnt stored
+     */
+    public int get(int key) {
+        int mask = this.keys.length - 1;
+        int slot = IdIndex.hash(key) & mask;
+        while (this.values[slot] != 0) {
+            if (this.keys[slot] == key)
+                return this.values[slot] - 1;
+            slot = (slot + 1) & mask;
+        }
+        return IdIndex.MISSING;
+    }
+
+    /**
+     * Checks whether or not the key is stored in the index
+     *
+     * @param key The key to look up
+     * @return - Whether or not the key is stored in the index
+     */
+    public boolean contains(int key) {
+        return this.get(key) != IdIndex.MISSING;
+    }
+
+    /**
+     * Stores the value against the key, replacing any previous value
+     *
+     * @param key The key to store the value against
+     * @param value The non-negative value to store
+     */
+    public void put(int key, int value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Index values must be non-negative");
+        // Keep the load factor at or below 0.5 so probe chains stay short
+        if ((this.size + 1) * 2 > this.keys.length)
+            this.resize(this.keys.length * 2);
+        int mask = this.keys.length - 1;
+        int slot = IdIndex.hash(key) & mask;
+        while (this.values[slot] != 0) {
+            if (this.keys[slot] == key) {
+                this.values[slot] = value + 1;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value + 1;
+        this.size++;
+    }
+
+    /**
+     * Gets the amount of keys stored in the index
+     *
+     * @return - The amount of keys stored
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Makes sure the index can hold the specified amount of keys without resizing
+     *
+     * @param expected The amount of keys expected to be stored
+     */
+    public void ensureCapacity(int expected) {
+        int capacity = this.keys.length;
+        while (expected * 2 > capacity)
+            capacity *= 2;
+        if (capacity != this.keys.length)
+            this.resize(capacity);
+    }
+
+    /**
+     * Rehashes every stored key into a table of the new capacity
+     *
+     * @param capacity The new amount of slots (must be a power of 2)
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == 0)
+                continue;
+            int slot = IdIndex.hash(oldKeys[i]) & mask;
+            while (this.values[slot] != 0)
+                slot = (slot + 1) & mask;
+            this.keys[slot] = oldKeys[i];
+            this.values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Spreads the bits of the key so sequential ISBNs dont cluster together
+     *
+     * @param key The key to hash
+     * @return - The hashed key
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
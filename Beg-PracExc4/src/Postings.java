@@ -0,0 +1,85 @@
+import java.util.Arrays;
+
+/**
+ * File: Postings.java
+ * Date: 24/05/2017
+ * Notes: A growable list of ascending catalogue positions, used by the title
+ * and author indexes to list the books that share a key.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class Postings {
+
+    /**
+     * The positions of the books
+     */
+    private int[] positions = new int[4];
+
+    /**
+     * The amount of positions in the list
+     */
+    private int size;
+
+    /**
+     * Adds a position to the end of the list, ignoring repeats of the last position
+     *
+     * @param position The position to be added, no lower than the last position
+     */
+    public void add(int position) {
+        if (this.size > 0 && this.positions[this.size - 1] == position)
+            return; // The same book was added for the same key twice
+        if (this.size == this.positions.length)
+            this.positions = Arrays.copyOf(this.positions, this.size * 2);
+        this.positions[this.size++] = position;
+    }
+
+    /**
+     * Gets the position at the specified index in the list
+     *
+     * @param index The index in the list
+     * @return - The position at the index
+     */
+    public int get(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        return this.positions[index];
+    }
+
+    /**
+     * Gets the amount of positions in the list
+     *
+     * @return - The amount of positions in the list
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the backing array of positions, only the first size() are used
+     *
+     * @return - The backing array of positions
+     */
+    int[] positions() {
+        return this.positions;
+    }
+
+    /**
+     * Keeps the positions in the result that also appear in this list
+     *
+     * @param result The ascending positions, overwritten with the intersection
+     * @param length The amount of positions in the result
+     * @return - The amount of positions left in the result
+     */
+    public int intersect(int[] result, int length) {
+        int kept = 0, j = 0;
+        for (int i = 0; i < length && j < this.size; i++) {
+            while (j < this.size && this.positions[j] < result[i])
+                j++;
+            if (j < this.size && this.positions[j] == result[i])
+                result[kept++] = result[i];
+        }
+        return kept;
+    }
+
+}
@@ -0,0 +1,411 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * File: PriceIndex.java
+ * Date: 24/05/2017
+ * Notes: Keeps the positions of catalogue books ordered by price so a sorted
+ * display is a walk over the index rather than a full sort. The index is an
+ * AVL tree stored in primitive arrays, where each node also counts the nodes
+ * below it so ranks can be found, so adding a book is O(log n) however large
+ * the catalogue is. Books with equal prices stay in the order they were
+ * added, the same as the old bubble sort. Changing the price of a book after
+ * it is indexed requires a rebuild().
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class PriceIndex {
+
+    /**
+     * Orders books by price ascending
+     */
+    public static final Comparator<Book> BY_PRICE = new Comparator<Book>() {
+        @Override
+        public int compare(Book a, Book b) {
+            return Double.compare(a.getPrice(), b.getPrice());
+        }
+    };
+
+    /**
+     * The amount of books at which a rebuild switches to a parallel sort
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * The initial amount of entries the index can hold before growing
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * The node used for a missing child. Node 0 is never used for an entry
+     * so its size and height are always 0
+     */
+    private static final int NIL = 0;
+
+    /**
+     * The left and right child of each node
+     */
+    private int[] left, right;
+
+    /**
+     * The amount of nodes in the subtree of each node, including itself
+     */
+    private int[] count;
+
+    /**
+     * The height of the subtree of each node
+     */
+    private byte[] height;
+
+    /**
+     * The catalogue position of the book of each node
+     */
+    private int[] position;
+
+    /**
+     * The price of the book of each node
+     */
+    private double[] price;
+
+    /**
+     * The root node of the tree
+     */
+    private int root = PriceIndex.NIL;
+
+    /**
+     * The amount of entries in the index
+     */
+    private int size;
+
+    /**
+     * The main constructor for the PriceIndex Object
+     */
+    public PriceIndex() {
+        this.allocate(PriceIndex.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Inserts a catalogue position into the index after every equal or lower
+     * price. Positions must be inserted in ascending order
+     *
+     * @param position The position of the book in the catalogue
+     * @param price The price of the book
+     */
+    public void insert(int position, double price) {
+        int node = this.size + 1;
+        if (node == this.position.length)
+            this.grow(this.position.length * 2);
+        this.position[node] = position;
+        this.price[node] = price;
+        this.left[node] = PriceIndex.NIL;
+        this.right[node] = PriceIndex.NIL;
+        this.update(node);
+        this.root = this.insert(this.root, node);
+        this.size++;
+    }
+
+    /**
+     * Replaces the index with the books sorted by price. The prices are sorted
+     * as primitives, then every book is keyed by the rank of its price and its
+     * position and those keys are sorted, which keeps equal prices in the
+     * order they were added without any boxing
+     *
+     * @param prices The price of every book, where the array index is the catalogue position
+     * @param count The amount of prices in the array to index
+     */
+    public void rebuild(double[] prices, int count) {
+        double[] distinct = Arrays.copyOf(prices, count);
+        boolean parallel = count >= PriceIndex.PARALLEL_THRESHOLD;
+        if (parallel)
+            Arrays.parallelSort(distinct);
+        else
+            Arrays.sort(distinct);
+        int unique = 0;
+        for (int i = 0; i < count; i++)
+            if (unique == 0 || Double.compare(distinct[unique - 1], distinct[i]) != 0)
+                distinct[unique++] = distinct[i];
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++)
+            keys[i] = (long) Arrays.binarySearch(distinct, 0, unique, prices[i]) << 32 | i;
+        if (parallel)
+            Arrays.parallelSort(keys);
+        else
+            Arrays.sort(keys);
+        this.allocate(Math.max(PriceIndex.DEFAULT_CAPACITY, count + 1));
+        for (int i = 0; i < count; i++) {
+            int p = (int) keys[i];
+            this.position[i + 1] = p;
+            this.price[i + 1] = prices[p];
+        }
+        this.root = this.build(1, count + 1);
+        this.size = count;
+    }
+
+    /**
+     * Gets the catalogue position of the book at the specified rank
+     *
+     * @param rank The rank of the book, 0 being the cheapest
+     * @return - The catalogue position of the book
+     */
+    public int positionAt(int rank) {
+        if (rank < 0 || rank >= this.size)
+            throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + this.size);
+        int node = this.root;
+        while (true) {
+            int before = this.count[this.left[node]];
+            if (rank < before) {
+                node = this.left[node];
+            } else if (rank == before) {
+                return this.position[node];
+            } else {
+                rank -= before + 1;
+                node = this.right[node];
+            }
+        }
+    }
+
+    /**
+     * Copies the catalogue positions of a range of ranks in price order,
+     * walking the tree in order instead of looking up every rank
+     *
+     * @param from The first rank (inclusive)
+     * @param to The last rank (exclusive)
+     * @param into Where the positions are copied, starting at index 0
+     */
+    public void positions(int from, int to, int[] into) {
+        if (from < 0 || to > this.size || from > to)
+            throw new IndexOutOfBoundsException("From: " + from + ", To: " + to + ", Size: " + this.size);
+        if (from == to)
+            return;
+        // The nodes still to be visited, which are never more than the height of the tree
+        int[] stack = new int[this.height[this.root] + 1];
+        int top = 0;
+        int node = this.root, rank = from;
+        while (node != PriceIndex.NIL) {
+            int before = this.count[this.left[node]];
+            if (rank < before) {
+                stack[top++] = node;
+                node = this.left[node];
+            } else if (rank == before) {
+                stack[top++] = node;
+                break;
+            } else {
+                rank -= before + 1;
+                node = this.right[node];
+            }
+        }
+        for (int i = 0; i < to - from; i++) {
+            node = stack[--top];
+            into[i] = this.position[node];
+            for (node = this.right[node]; node != PriceIndex.NIL; node = this.left[node])
+                stack[top++] = node;
+        }
+    }
+
+    /**
+     * Gets the amount of entries in the index
+     *
+     * @return - The amount of entries in the index
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the first rank with a price equal to or higher than the specified price
+     *
+     * @param price The price to search for
+     * @return - The first rank with an equal or higher price, or size() if there is none
+     */
+    public int lowerBound(double price) {
+        int rank = 0;
+        int node = this.root;
+        while (node != PriceIndex.NIL) {
+            if (Double.compare(this.price[node], price) < 0) {
+                rank += this.count[this.left[node]] + 1;
+                node = this.right[node];
+            } else {
+                node = this.left[node];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Finds the first rank with a price higher than the specified price
+     *
+     * @param price The price to search for
+     * @return - The first rank with a higher price, or size() if there is none
+     */
+    public int upperBound(double price) {
+        int rank = 0;
+        int node = this.root;
+        while (node != PriceIndex.NIL) {
+            if (Double.compare(this.price[node], price) <= 0) {
+                rank += this.count[this.left[node]] + 1;
+                node = this.right[node];
+            } else {
+                node = this.left[node];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Sorts the books by price using a stable merge sort (TimSort), or the
+     * parallel merge sort once there are enough books for it to pay off
+     *
+     * @param books The books to be sorted in place
+     * @param parallel Whether or not to allow the parallel sort
+     */
+    public static void sort(Book[] books, boolean parallel) {
+        if (parallel && books.length >= PriceIndex.PARALLEL_THRESHOLD)
+            Arrays.parallelSort(books, PriceIndex.BY_PRICE);
+        else
+            Arrays.sort(books, PriceIndex.BY_PRICE);
+    }
+
+    /**
+     * Inserts a node into a subtree, rebalancing on the way back up
+     *
+     * @param subtree The root of the subtree
+     * @param node The node to be inserted
+     * @return - The new root of the subtree
+     */
+    private int insert(int subtree, int node) {
+        if (subtree == PriceIndex.NIL)
+            return node;
+        if (this.before(node, subtree))
+            this.left[subtree] = this.insert(this.left[subtree], node);
+        else
+            this.right[subtree] = this.insert(this.right[subtree], node);
+        return this.balance(subtree);
+    }
+
+    /**
+     * Checks whether or not a node comes before another, by price and then
+     * by catalogue position
+     *
+     * @param a The first node
+     * @param b The second node
+     * @return - Whether or not a comes before b
+     */
+    private boolean before(int a, int b) {
+        int c = Double.compare(this.price[a], this.price[b]);
+        return c < 0 || (c == 0 && this.position[a] < this.position[b]);
+    }
+
+    /**
+     * Builds a perfectly balanced subtree from nodes that are already in order
+     *
+     * @param from The first node (inclusive)
+     * @param to The last node (exclusive)
+     * @return - The root of the subtree
+     */
+    private int build(int from, int to) {
+        if (from >= to)
+            return PriceIndex.NIL;
+        int mid = (from + to) >>> 1;
+        this.left[mid] = this.build(from, mid);
+        this.right[mid] = this.build(mid + 1, to);
+        this.update(mid);
+        return mid;
+    }
+
+    /**
+     * Rotates a node if its subtrees differ in height by more than 1
+     *
+     * @param node The node to be balanced
+     * @return - The node that takes its place
+     */
+    private int balance(int node) {
+        this.update(node);
+        int difference = this.height[this.left[node]] - this.height[this.right[node]];
+        if (difference > 1) {
+            int l = this.left[node];
+            if (this.height[this.left[l]] < this.height[this.right[l]])
+                this.left[node] = this.rotateLeft(l);
+            return this.rotateRight(node);
+        }
+        if (difference < -1) {
+            int r = this.right[node];
+            if (this.height[this.right[r]] < this.height[this.left[r]])
+                this.right[node] = this.rotateRight(r);
+            return this.rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Moves the left child of a node up into its place
+     *
+     * @param node The node to be rotated
+     * @return - The node that takes its place
+     */
+    private int rotateRight(int node) {
+        int l = this.left[node];
+        this.left[node] = this.right[l];
+        this.right[l] = node;
+        this.update(node);
+        this.update(l);
+        return l;
+    }
+
+    /**
+     * Moves the right child of a node up into its place
+     *
+     * @param node The node to be rotated
+     * @return - The node that takes its place
+     */
+    private int rotateLeft(int node) {
+        int r = this.right[node];
+        this.right[node] = this.left[r];
+        this.left[r] = node;
+        this.update(node);
+        this.update(r);
+        return r;
+    }
+
+    /**
+     * Works out the size and height of a node from its children
+     *
+     * @param node The node to be updated
+     */
+    private void update(int node) {
+        int l = this.left[node], r = this.right[node];
+        this.count[node] = this.count[l] + this.count[r] + 1;
+        this.height[node] = (byte) (Math.max(this.height[l], this.height[r]) + 1);
+    }
+
+    /**
+     * Replaces the node arrays with empty ones
+     *
+     * @param capacity The amount of nodes, including NIL
+     */
+    private void allocate(int capacity) {
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.count = new int[capacity];
+        this.height = new byte[capacity];
+        this.position = new int[capacity];
+        this.price = new double[capacity];
+        this.root = PriceIndex.NIL;
+        this.size = 0;
+    }
+
+    /**
+     * Grows the node arrays, keeping every node
+     *
+     * @param capacity The new amount of nodes, including NIL
+     */
+    private void grow(int capacity) {
+        this.left = Arrays.copyOf(this.left, capacity);
+        this.right = Arrays.copyOf(this.right, capacity);
+        this.count = Arrays.copyOf(this.count, capacity);
+        this.height = Arrays.copyOf(this.height, capacity);
+        this.position = Arrays.copyOf(this.position, capacity);
+        this.price = Arrays.copyOf(this.price, capacity);
+    }
+
+}
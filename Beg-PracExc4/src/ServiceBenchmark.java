@@ -0,0 +1,134 @@
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File: ServiceBenchmark.java
+ * Date: 24/05/2017
+ * Notes: Stress tests BookStoreService with a growing amount of threads
+ * running a mix of adds, ID checks, title searches, author queries and sorted
+ * displays, printing the throughput for each thread count. After every run
+ * the catalogue size is checked against the amount of successful adds.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class ServiceBenchmark {
+
+    /**
+     * The amount of books added before each run
+     */
+    private static final int PRELOAD = 4000;
+
+    /**
+     * How long each run lasts in milliseconds
+     */
+    private static final long DURATION = 2000L;
+
+    /**
+     * Out of 100 operations, how many are adds, ID checks, searches and queries,
+     * anything left over is a sorted display
+     */
+    private static final int ADDS = 5, EXISTS = 50, SEARCHES = 25, QUERIES = 19;
+
+    /**
+     * Main method run to print the benchmark results
+     *
+     * @param args The command line arguments parsed to the program, optionally the largest thread count
+     * @throws InterruptedException - Thrown if the main thread is interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        System.out.println("threads\tops/sec\tbooks\tconsistent");
+        for (int threads = 1; threads <= maxThreads; threads *= 2)
+            ServiceBenchmark.run(threads);
+    }
+
+    /**
+     * Runs the workload with the amount of threads and prints the result
+     *
+     * @param threads The amount of threads running the workload
+     * @throws InterruptedException - Thrown if the main thread is interrupted while waiting
+     */
+    private static void run(int threads) throws InterruptedException {
+        final BookStoreService service = new BookStoreService();
+        Random random = new Random(threads);
+        int added = 0;
+        for (int i = 0; i < ServiceBenchmark.PRELOAD; i++)
+            if (service.addBook(ServiceBenchmark.book(BookStore.MIN_ID + i, random)) == null)
+                added++;
+        final AtomicLong ops = new AtomicLong();
+        final AtomicLong adds = new AtomicLong(added);
+        final CountDownLatch start = new CountDownLatch(1);
+        final long end = System.currentTimeMillis() + ServiceBenchmark.DURATION;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    long done = 0L;
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    while (System.currentTimeMillis() < end) {
+                        for (int i = 0; i < 64; i++) {
+                            ServiceBenchmark.operation(service, random, adds);
+                            done++;
+                        }
+                    }
+                    ops.addAndGet(done);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+        double perSecond = ops.get() * 1000D / ServiceBenchmark.DURATION;
+        System.out.println(threads + "\t" + String.format("%.0f", perSecond) + "\t" + service.size()
+                + "\t" + (service.size() == adds.get()));
+    }
+
+    /**
+     * Runs a single randomly chosen operation against the service
+     *
+     * @param service The service being tested
+     * @param random The random source of the calling thread
+     * @param adds Counts the successful adds
+     */
+    private static void operation(BookStoreService service, Random random, AtomicLong adds) {
+        int pick = random.nextInt(100);
+        if (pick < ServiceBenchmark.ADDS) {
+            int id = BookStore.MIN_ID + random.nextInt(BookStore.MAX_ID - BookStore.MIN_ID + 1);
+            if (service.addBook(ServiceBenchmark.book(id, random)) == null)
+                adds.incrementAndGet();
+        } else if ((pick -= ServiceBenchmark.ADDS) < ServiceBenchmark.EXISTS) {
+            service.exists(BookStore.MIN_ID + random.nextInt(BookStore.MAX_ID - BookStore.MIN_ID + 1));
+        } else if ((pick -= ServiceBenchmark.EXISTS) < ServiceBenchmark.SEARCHES) {
+            service.search("tle " + random.nextInt(100), random.nextBoolean());
+        } else if ((pick -= ServiceBenchmark.SEARCHES) < ServiceBenchmark.QUERIES) {
+            double min = random.nextInt(100);
+            service.query("Author " + random.nextInt(50), min, min + 10D);
+        } else {
+            service.sortDisplay();
+        }
+    }
+
+    /**
+     * Creates a book with a random title, author and price
+     *
+     * @param id The ID of the book
+     * @param random The random source used
+     * @return - The created book
+     */
+    private static Book book(int id, Random random) {
+        return new Book(id, "Title " + random.nextInt(10000), "Author " + random.nextInt(50),
+                random.nextInt(10000) / 100D);
+    }
+
+}
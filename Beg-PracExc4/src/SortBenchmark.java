@@ -0,0 +1,151 @@
+import java.util.Random;
+
+/**
+ * File: SortBenchmark.java
+ * Date: 24/05/2017
+ * Notes: Compares the original bubble sort against the price index walk and
+ * the merge sorts (over Book Objects and over the columnar price column) at
+ * 10, 10,000 and 1,000,000 books. Each case is warmed up before it is timed
+ * so the JIT has compiled it. The bubble sort is skipped at 1,000,000 books
+ * as it would take hours to finish.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class SortBenchmark {
+
+    /**
+     * The catalogue sizes that are benchmarked
+     */
+    private static final int[] SIZES = {10, 10000, 1000000};
+
+    /**
+     * The largest catalogue the bubble sort is run against
+     */
+    private static final int BUBBLE_LIMIT = 10000;
+
+    /**
+     * The amount of untimed runs before each case is timed
+     */
+    private static final int WARMUP = 5;
+
+    /**
+     * The amount of timed runs that are averaged for each case
+     */
+    private static final int RUNS = 10;
+
+    /**
+     * Stops the JIT from removing sorts whose results are never read
+     */
+    private static double sink;
+
+    /**
+     * Main method run to print the benchmark results
+     *
+     * @param args The command line arguments parsed to the program
+     */
+    public static void main(String[] args) {
+        System.out.println("books\tcase\tavg ms");
+        for (int size : SortBenchmark.SIZES) {
+            final Book[] books = SortBenchmark.generate(size);
+            final Catalogue catalogue = new Catalogue();
+            catalogue.addAll(books);
+            final ColumnarCatalogue columns = new ColumnarCatalogue();
+            columns.ensureCapacity(size);
+            for (Book book : books)
+                columns.add(book.getId(), book.getTitle(), book.getAuthor(), book.getPrice());
+            if (size <= SortBenchmark.BUBBLE_LIMIT)
+                SortBenchmark.time(size, "bubble", new Runnable() {
+                    @Override
+                    public void run() {
+                        Book[] temp = books.clone();
+                        SortBenchmark.bubbleSort(temp);
+                        SortBenchmark.sink += temp[0].getPrice();
+                    }
+                });
+            else
+                System.out.println(size + "\tbubble\tskipped");
+            SortBenchmark.time(size, "index walk", new Runnable() {
+                @Override
+                public void run() {
+                    SortBenchmark.sink += catalogue.sortedByPrice()[0].getPrice();
+                }
+            });
+            SortBenchmark.time(size, "timsort", new Runnable() {
+                @Override
+                public void run() {
+                    Book[] temp = books.clone();
+                    PriceIndex.sort(temp, false);
+                    SortBenchmark.sink += temp[0].getPrice();
+                }
+            });
+            SortBenchmark.time(size, "parallel", new Runnable() {
+                @Override
+                public void run() {
+                    Book[] temp = books.clone();
+                    PriceIndex.sort(temp, true);
+                    SortBenchmark.sink += temp[0].getPrice();
+                }
+            });
+            SortBenchmark.time(size, "columnar", new Runnable() {
+                @Override
+                public void run() {
+                    SortBenchmark.sink += columns.sortedByPrice()[0];
+                }
+            });
+        }
+        if (SortBenchmark.sink == 42D)
+            System.out.println();
+    }
+
+    /**
+     * Runs the benchmark case and prints the average time it took
+     *
+     * @param size The amount of books in the case
+     * @param name The name of the case
+     * @param task The work that is to be timed
+     */
+    private static void time(int size, String name, Runnable task) {
+        for (int i = 0; i < SortBenchmark.WARMUP; i++)
+            task.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < SortBenchmark.RUNS; i++)
+            task.run();
+        double ms = (System.nanoTime() - start) / 1e6D / SortBenchmark.RUNS;
+        System.out.println(size + "\t" + name + "\t" + String.format("%.3f", ms));
+    }
+
+    /**
+     * Creates books with unique IDs and random prices
+     *
+     * @param size The amount of books to create
+     * @return - The created books
+     */
+    private static Book[] generate(int size) {
+        Random random = new Random(size);
+        Book[] books = new Book[size];
+        for (int i = 0; i < size; i++)
+            books[i] = new Book(i, "Title " + i, "Author " + (i % 100), random.nextInt(10000) / 100D);
+        return books;
+    }
+
+    /**
+     * The bubble sort that BookStore.sortDisplay() originally used
+     *
+     * @param temp The books to be sorted in place
+     */
+    private static void bubbleSort(Book[] temp) {
+        int length = temp.length;
+        int c = length - 1;
+        for (int i = 0; i < length - 1; i++) {
+            for (int j = 0; j < c; j++)
+                if (temp[j].getPrice() > temp[j + 1].getPrice()) {
+                    Book b = temp[j];
+                    temp[j] = temp[j + 1];
+                    temp[j + 1] = b;
+                }
+            c--;
+        }
+    }
+
+}
@@ -0,0 +1,227 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * File: TitleIndex.java
+ * Date: 24/05/2017
+ * Notes: Trigram inverted index over book titles. Every run of 3 characters in
+ * a title maps to the catalogue positions of the titles that contain it, once
+ * for the title as entered and once for the upper cased title. A substring
+ * query can then only match books that appear in the postings of every
+ * trigram in the query, so just those candidates need to be checked. The
+ * trigrams are packed into a long and kept in an open addressing table so
+ * no key is ever boxed.
+ *
+ * @author Lee Tzilantonis
+ * @version 1.0.0
+ */
+public class TitleIndex {
+
+    /**
+     * The length of each indexed run of characters
+     */
+    public static final int GRAM = 3;
+
+    /**
+     * The initial amount of slots in each table (must be a power of 2)
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Postings for the titles as they were entered
+     */
+    private final Grams exact = new Grams();
+
+    /**
+     * Postings for the upper cased titles, used for case insensitive searching
+     */
+    private final Grams folded = new Grams();
+
+    /**
+     * The upper cased title of every indexed book, by catalogue position
+     */
+    private String[] upper = new String[TitleIndex.DEFAULT_CAPACITY];
+
+    /**
+     * Indexes the title of a book, positions must be added in ascending order
+     *
+     * @param position The catalogue position of the book
+     * @param title The title of the book
+     */
+    public void add(int position, String title) {
+        String folded = title.toUpperCase(); // The same String if it is already upper case
+        if (position >= this.upper.length)
+            this.upper = Arrays.copyOf(this.upper, Math.max(position + 1, this.upper.length * 2));
+        this.upper[position] = folded;
+        TitleIndex.index(this.exact, position, title);
+        TitleIndex.index(this.folded, position, folded);
+    }
+
+    /**
+     * Gets the upper cased title of an indexed book, so case insensitive
+     * searches dont need to upper case every candidate again
+     *
+     * @param position The catalogue position of the book
+     * @return - The upper cased title
+     */
+    public String folded(int position) {
+        return this.upper[position];
+    }
+
+    /**
+     * Gets the catalogue positions of books whose title may contain the query.
+     * Every book that does contain the query is included but the candidates
+     * still need to be checked as the trigrams may appear apart
+     *
+     * @param query The text being searched for
+     * @param ci Whether or not the search is case insensitive
+     * @return - The ascending candidate positions, or null if the query is
+     *           too short to use the index and every book must be checked
+     */
+    public int[] candidates(String query, boolean ci) {
+        if (query.length() < TitleIndex.GRAM)
+            return null;
+        String text = ci ? query.toUpperCase() : query;
+        Grams postings = ci ? this.folded : this.exact;
+        int count = text.length() - TitleIndex.GRAM + 1;
+        Postings[] lists = new Postings[count];
+        for (int i = 0; i < count; i++) {
+            lists[i] = postings.get(TitleIndex.gram(text, i));
+            if (lists[i] == null)
+                return new int[0]; // No title contains this trigram
+        }
+        // Intersect starting from the shortest list so the result only shrinks
+        Arrays.sort(lists, new Comparator<Postings>() {
+            @Override
+            public int compare(Postings a, Postings b) {
+                return Integer.compare(a.size(), b.size());
+            }
+        });
+        int[] result = Arrays.copyOf(lists[0].positions(), lists[0].size());
+        int length = result.length;
+        for (int i = 1; i < count && length > 0; i++)
+            length = lists[i].intersect(result, length);
+        return Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Adds the position to the postings of every trigram in the text
+     *
+     * @param postings The postings to be added to
+     * @param position The catalogue position of the book
+     * @param text The text to be indexed
+     */
+    private static void index(Grams postings, int position, String text) {
+        for (int i = 0; i + TitleIndex.GRAM <= text.length(); i++)
+            postings.getOrCreate(TitleIndex.gram(text, i)).add(position);
+    }
+
+    /**
+     * Packs the 3 characters starting at the index into a single key
+     *
+     * @param text The text to read the characters from
+     * @param index The index of the first character
+     * @return - The key for the trigram
+     */
+    private static long gram(String text, int index) {
+        return ((long) text.charAt(index) << 32)
+                | ((long) text.charAt(index + 1) << 16)
+                | text.charAt(index + 2);
+    }
+
+    /**
+     * Open addressing hash map from a packed trigram to its postings, the same
+     * as IdIndex but with long keys and Postings values
+     */
+    private static class Grams {
+
+        /**
+         * The keys stored in each slot of the table
+         */
+        private long[] keys = new long[TitleIndex.DEFAULT_CAPACITY];
+
+        /**
+         * The postings stored in each slot of the table, null marks an empty slot
+         */
+        private Postings[] values = new Postings[TitleIndex.DEFAULT_CAPACITY];
+
+        /**
+         * The amount of keys stored in the table
+         */
+        private int size;
+
+        /**
+         * Gets the postings of the trigram
+         *
+         * @param key The packed trigram
+         * @return - The postings of the trigram or null if no title contains it
+         */
+        private Postings get(long key) {
+            int mask = this.keys.length - 1;
+            int slot = Grams.hash(key) & mask;
+            while (this.values[slot] != null) {
+                if (this.keys[slot] == key)
+                    return this.values[slot];
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Gets the postings of the trigram, adding empty postings if there are none
+         *
+         * @param key The packed trigram
+         * @return - The postings of the trigram
+         */
+        private Postings getOrCreate(long key) {
+            // Keep the load factor at or below 0.5 so probe chains stay short
+            if ((this.size + 1) * 2 > this.keys.length)
+                this.resize(this.keys.length * 2);
+            int mask = this.keys.length - 1;
+            int slot = Grams.hash(key) & mask;
+            while (this.values[slot] != null) {
+                if (this.keys[slot] == key)
+                    return this.values[slot];
+                slot = (slot + 1) & mask;
+            }
+            this.keys[slot] = key;
+            this.values[slot] = new Postings();
+            this.size++;
+            return this.values[slot];
+        }
+
+        /**
+         * Rehashes every stored key into a table of the new capacity
+         *
+         * @param capacity The new amount of slots (must be a power of 2)
+         */
+        private void resize(int capacity) {
+            long[] oldKeys = this.keys;
+            Postings[] oldValues = this.values;
+            this.keys = new long[capacity];
+            this.values = new Postings[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] == null)
+                    continue;
+                int slot = Grams.hash(oldKeys[i]) & mask;
+                while (this.values[slot] != null)
+                    slot = (slot + 1) & mask;
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+
+        /**
+         * Spreads the bits of the key so trigrams sharing characters dont cluster together
+         *
+         * @param key The key to hash
+         * @return - The hashed key
+         */
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package hotel;
+
+import java.util.Comparator;
+
+/**
+ * File: Availability.java
+ * Date: 01/06/2017
+ * Notes: A room found free at a property for every night of a stay, along
+ * with what the stay would cost there.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class Availability {
+
+    /**
+     * Orders rooms by the cost of the stay, then by property and room
+     */
+    public static final Comparator<Availability> BY_TOTAL = new Comparator<Availability>() {
+        @Override
+        public int compare(Availability a, Availability b) {
+            if (a.total != b.total)
+                return a.total < b.total ? -1 : 1;
+            int c = a.property.compareTo(b.property);
+            return c != 0 ? c : Integer.compare(a.roomNo, b.roomNo);
+        }
+    };
+
+    /**
+     * The name of the property the room is at
+     */
+    private final String property;
+
+    /**
+     * The number of the room
+     */
+    private final int roomNo;
+
+    /**
+     * Whether or not the room is a suite
+     */
+    private final boolean suite;
+
+    /**
+     * The cost of the stay in cents
+     */
+    private final long total;
+
+    /**
+     * The main constructor for the Availability Object
+     *
+     * @param property The name of the property the room is at
+     * @param roomNo The number of the room
+     * @param suite Whether or not the room is a suite
+     * @param total The cost of the stay in cents
+     */
+    public Availability(String property, int roomNo, boolean suite, long total) {
+        this.property = property;
+        this.roomNo = roomNo;
+        this.suite = suite;
+        this.total = total;
+    }
+
+    /**
+     * Gets the name of the property the room is at
+     *
+     * @return - The name of the property
+     */
+    public String getProperty() {
+        return this.property;
+    }
+
+    /**
+     * Gets the room number
+     *
+     * @return - The room number
+     */
+    public int getRoomNo() {
+        return this.roomNo;
+    }
+
+    /**
+     * Gets whether or not the room is a suite
+     *
+     * @return - Whether or not the room is a suite
+     */
+    public boolean isSuite() {
+        return this.suite;
+    }
+
+    /**
+     * Gets the cost of the stay in cents
+     *
+     * @return - The cost of the stay in cents
+     */
+    public long getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Gets the user-friendly String representation of the Availability Object
+     *
+     * @return - The String representation of the Availability Object
+     */
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder(this.property);
+        b.append(this.suite ? " Suite No. " : " Room No. ").append(this.roomNo);
+        b.append(" $");
+        return Money.append(b, this.total).toString();
+    }
+
+}
@@ -0,0 +1,204 @@
+package hotel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File: BookingBenchmark.java
+ * Date: 01/06/2017
+ * Notes: Has many threads fighting over the same few rooms, each one booking
+ * a random room and cancelling it again whenever it gets it. Compares the
+ * BookingService against checking and adding to a list under a lock the way
+ * HotelBookings does, at 1 thread up to twice the amount of cores (at least
+ * 8). Every booking is checked against a count of holders per room, and any
+ * room held by two threads at once is reported as a double booking.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class BookingBenchmark {
+
+    /**
+     * The amount of rooms every thread fights over
+     */
+    private static final int HOT_ROOMS = 8;
+
+    /**
+     * The amount of bookings each thread attempts in a run
+     */
+    private static final int ATTEMPTS = 200000;
+
+    /**
+     * The amount of untimed runs before each case is timed
+     */
+    private static final int WARMUP = 2;
+
+    /**
+     * A way of booking rooms that is benchmarked
+     */
+    private interface Desk {
+
+        /**
+         * Books the room if it is free
+         *
+         * @param suite Whether or not the room is a suite
+         * @param roomNo The number of the room
+         * @return - Whether or not the room was booked
+         */
+        boolean book(boolean suite, int roomNo);
+
+        /**
+         * Cancels the booking of the room
+         *
+         * @param suite Whether or not the room is a suite
+         * @param roomNo The number of the room
+         */
+        void cancel(boolean suite, int roomNo);
+    }
+
+    /**
+     * Main method run to print the benchmark results
+     *
+     * @param args The command line arguments parsed to the program
+     * @throws InterruptedException - Thrown if the benchmark is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("threads\tcase\tbookings/sec\tbooked\tdouble bookings");
+        for (int threads = 1; threads <= Math.max(cores * 2, 8); threads *= 2) {
+            BookingBenchmark.time(threads, "locked list", BookingBenchmark.lockedList());
+            BookingBenchmark.time(threads, "cas service", BookingBenchmark.service());
+        }
+    }
+
+    /**
+     * Runs the case and prints how many bookings were attempted each second
+     *
+     * @param threads The amount of threads booking at once
+     * @param name The name of the case
+     * @param desk The way rooms are booked
+     * @throws InterruptedException - Thrown if the benchmark is interrupted
+     */
+    private static void time(int threads, String name, Desk desk) throws InterruptedException {
+        for (int i = 0; i < BookingBenchmark.WARMUP; i++)
+            BookingBenchmark.run(threads, desk, new AtomicLong(), new AtomicLong());
+        AtomicLong booked = new AtomicLong(), doubles = new AtomicLong();
+        long start = System.nanoTime();
+        BookingBenchmark.run(threads, desk, booked, doubles);
+        double seconds = (System.nanoTime() - start) / 1e9D;
+        long attempts = (long) threads * BookingBenchmark.ATTEMPTS;
+        System.out.println(threads + "\t" + name + "\t" + String.format("%.0f", attempts / seconds)
+                + "\t" + booked.get() + "\t" + doubles.get());
+    }
+
+    /**
+     * Has every thread attempt its bookings and waits for them all to finish
+     *
+     * @param threads The amount of threads booking at once
+     * @param desk The way rooms are booked
+     * @param booked Counts the bookings that succeeded
+     * @param doubles Counts the rooms found held by two threads at once
+     * @throws InterruptedException - Thrown if the benchmark is interrupted
+     */
+    private static void run(int threads, final Desk desk, final AtomicLong booked, final AtomicLong doubles)
+            throws InterruptedException {
+        final AtomicIntegerArray holders = new AtomicIntegerArray(BookingBenchmark.HOT_ROOMS * 2);
+        final CountDownLatch ready = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ready.await();
+                    } catch (InterruptedException e) {
+                        done.countDown();
+                        return;
+                    }
+                    long mine = 0L;
+                    for (int i = 0; i < BookingBenchmark.ATTEMPTS; i++) {
+                        int hot = random.nextInt(BookingBenchmark.HOT_ROOMS * 2);
+                        boolean suite = (hot & 1) == 1;
+                        int roomNo = (hot >> 1) + 1;
+                        if (!desk.book(suite, roomNo))
+                            continue;
+                        mine++;
+                        if (holders.incrementAndGet(hot) != 1)
+                            doubles.incrementAndGet();
+                        holders.decrementAndGet(hot);
+                        desk.cancel(suite, roomNo);
+                    }
+                    booked.addAndGet(mine);
+                    done.countDown();
+                }
+            }).start();
+        }
+        ready.countDown();
+        done.await();
+    }
+
+    /**
+     * Books rooms by checking and adding to a list under a lock
+     *
+     * @return - The locked list case
+     */
+    private static Desk lockedList() {
+        final List<HotelRoom> rooms = new ArrayList<HotelRoom>();
+        return new Desk() {
+            @Override
+            public synchronized boolean book(boolean suite, int roomNo) {
+                for (HotelRoom r : rooms)
+                    if (r.getRoomNo() == roomNo && r instanceof Suite == suite)
+                        return false;
+                rooms.add(suite ? new Suite(roomNo) : new HotelRoom(roomNo));
+                return true;
+            }
+
+            @Override
+            public synchronized void cancel(boolean suite, int roomNo) {
+                for (int i = 0; i < rooms.size(); i++) {
+                    HotelRoom r = rooms.get(i);
+                    if (r.getRoomNo() == roomNo && r instanceof Suite == suite) {
+                        rooms.remove(i);
+                        return;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Books rooms through a BookingService
+     *
+     * @return - The booking service case
+     */
+    private static Desk service() {
+        final BookingService service = new BookingService(HotelBookings.MAX_ROOM_NUMBER);
+        return new Desk() {
+            @Override
+            public boolean book(boolean suite, int roomNo) {
+                try {
+                    return service.book(suite, roomNo) != null;
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public void cancel(boolean suite, int roomNo) {
+                try {
+                    service.cancel(suite, roomNo);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,378 @@
+package hotel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File: BookingJournal.java
+ * Date: 01/06/2017
+ * Notes: Keeps the booked rooms on disk. Every booking and cancellation is
+ * appended to the journal as an 8 byte record, and records are written and
+ * forced to disk in batches by commit() rather than one at a time. Now and
+ * then the whole room table is written to a snapshot file and the journal is
+ * emptied, so recovering only has to load the snapshot and replay the
+ * records after it.
+ *
+ * The journal and snapshot each hold a generation number. Taking a snapshot
+ * moves to the next generation, and a journal from an older generation than
+ * the snapshot is already covered by it and is thrown away. A record is the
+ * int (roomNo << 2 | suite << 1 | cancel) followed by the same int XORed with
+ * a check value, so a record that was only partly written is ignored.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class BookingJournal implements Closeable {
+
+    /**
+     * The amount of records buffered before they are committed without waiting for commit()
+     */
+    public static final int BATCH = 4096;
+
+    /**
+     * The amount of records journalled after which a snapshot is due
+     */
+    public static final long SNAPSHOT_INTERVAL = 1000000L;
+
+    /**
+     * Identifies a journal file, "HJN1"
+     */
+    private static final int MAGIC = 0x484A4E31;
+
+    /**
+     * Identifies a snapshot file, "HSN1"
+     */
+    private static final int SNAPSHOT_MAGIC = 0x48534E31;
+
+    /**
+     * The version of both file formats
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the journal header: magic, version and the generation
+     */
+    private static final int HEADER = 16;
+
+    /**
+     * The size of a record
+     */
+    private static final int RECORD = 8;
+
+    /**
+     * XORed with a record to make its check value
+     */
+    private static final int CHECK = 0x5A5A5A5A;
+
+    /**
+     * The locations of the journal and snapshot files
+     */
+    private final Path journalPath, snapshotPath;
+
+    /**
+     * The highest room number that can be journalled
+     */
+    private final int maxRoom;
+
+    /**
+     * The open journal file
+     */
+    private final FileChannel channel;
+
+    /**
+     * Records waiting to be written by the next commit
+     */
+    private final ByteBuffer pending = ByteBuffer.allocateDirect(BookingJournal.BATCH * BookingJournal.RECORD);
+
+    /**
+     * Where the next record is written in the journal file
+     */
+    private long position = -1L;
+
+    /**
+     * The generation of the current journal and snapshot
+     */
+    private long generation;
+
+    /**
+     * The amount of records journalled since the last snapshot
+     */
+    private long records;
+
+    /**
+     * The main constructor for the BookingJournal Object, recover() must be
+     * called before anything is journalled
+     *
+     * @param journal The location of the journal file
+     * @param snapshot The location of the snapshot file
+     * @param maxRoom The highest room number that can be journalled
+     * @throws IOException - Thrown if the journal couldnt be opened
+     */
+    public BookingJournal(String journal, String snapshot, int maxRoom) throws IOException {
+        this.journalPath = Paths.get(journal);
+        this.snapshotPath = Paths.get(snapshot);
+        this.maxRoom = maxRoom;
+        this.channel = FileChannel.open(this.journalPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Loads the snapshot and replays the journal after it, adding every room
+     * still booked to the list in the order they were booked
+     *
+     * @param rooms The list the booked rooms are added to
+     * @throws IOException - Thrown if the files couldnt be read or dont belong together
+     */
+    public void recover(List<HotelRoom> rooms) throws IOException {
+        // The order each room was booked in, 0 if it isnt booked
+        long[] booked = new long[(this.maxRoom + 1) * 2];
+        long order = 0L;
+        this.generation = 0L;
+        if (Files.exists(this.snapshotPath)) {
+            ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(this.snapshotPath));
+            if (snapshot.remaining() < 20 || snapshot.getInt() != BookingJournal.SNAPSHOT_MAGIC
+                    || snapshot.getInt() != BookingJournal.VERSION)
+                throw new IOException(this.snapshotPath + " is not a booking snapshot");
+            this.generation = snapshot.getLong();
+            int count = snapshot.getInt();
+            // Every room is 4 bytes, so a snapshot cut short cant hold as many as it says
+            if (count < 0 || snapshot.remaining() != count * 4L)
+                throw new IOException(this.snapshotPath + " is corrupt, it should hold " + count
+                        + " rooms but has " + snapshot.remaining() + " bytes of rooms");
+            for (int i = 0; i < count; i++) {
+                int key = snapshot.getInt();
+                if (key < 2 || key >= booked.length)
+                    throw new IOException(this.snapshotPath + " has a room number out of range");
+                booked[key] = ++order;
+            }
+        }
+        long size = this.channel.size();
+        long journalled = size < BookingJournal.HEADER ? this.generation : this.readHeader();
+        if (journalled > this.generation)
+            throw new IOException(this.journalPath + " is newer than the snapshot " + this.snapshotPath);
+        this.position = BookingJournal.HEADER;
+        this.records = 0L;
+        if (journalled == this.generation && size > BookingJournal.HEADER)
+            order = this.replay(booked, order, size);
+        if (journalled < this.generation || size < BookingJournal.HEADER) {
+            // The journal is new or was already covered by the snapshot
+            this.writeHeader();
+        } else if (this.position < size) {
+            // Throw away a record that was only partly written
+            this.channel.truncate(this.position);
+            this.channel.force(true);
+        }
+        long[] sorted = new long[(int) Math.min(order, booked.length)];
+        int count = 0;
+        for (int key = 0; key < booked.length; key++)
+            if (booked[key] != 0L)
+                sorted[count++] = booked[key] << 32 | key;
+        Arrays.sort(sorted, 0, count);
+        for (int i = 0; i < count; i++) {
+            int key = (int) sorted[i];
+            rooms.add((key & 1) == 1 ? new Suite(key >> 1) : new HotelRoom(key >> 1));
+        }
+    }
+
+    /**
+     * Journals a booking
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @throws IOException - Thrown if a full batch couldnt be committed
+     */
+    public void book(boolean suite, int roomNo) throws IOException {
+        this.append(suite, roomNo, 0);
+    }
+
+    /**
+     * Journals a cancellation
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @throws IOException - Thrown if a full batch couldnt be committed
+     */
+    public void cancel(boolean suite, int roomNo) throws IOException {
+        this.append(suite, roomNo, 1);
+    }
+
+    /**
+     * Writes every waiting record to the journal and forces it to disk
+     *
+     * @throws IOException - Thrown if the records couldnt be written
+     */
+    public void commit() throws IOException {
+        if (this.pending.position() == 0)
+            return;
+        this.pending.flip();
+        while (this.pending.hasRemaining())
+            this.position += this.channel.write(this.pending, this.position);
+        this.pending.clear();
+        this.channel.force(false);
+    }
+
+    /**
+     * Checks whether enough records have been journalled that a snapshot should be taken
+     *
+     * @return - Whether or not a snapshot is due
+     */
+    public boolean isSnapshotDue() {
+        return this.records >= BookingJournal.SNAPSHOT_INTERVAL;
+    }
+
+    /**
+     * Gets the amount of records journalled since the last snapshot
+     *
+     * @return - The amount of records since the last snapshot
+     */
+    public long getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Writes every booked room to a new snapshot and empties the journal
+     *
+     * @param rooms Every booked room, in the order they were booked
+     * @throws IOException - Thrown if the snapshot couldnt be written
+     */
+    public void snapshot(List<HotelRoom> rooms) throws IOException {
+        this.commit();
+        ByteBuffer b = ByteBuffer.allocate(20 + rooms.size() * 4);
+        b.putInt(BookingJournal.SNAPSHOT_MAGIC).putInt(BookingJournal.VERSION);
+        b.putLong(this.generation + 1L).putInt(rooms.size());
+        for (HotelRoom room : rooms)
+            b.putInt(room.getRoomNo() << 1 | (room instanceof Suite ? 1 : 0));
+        b.flip();
+        Path temp = Paths.get(this.snapshotPath.toString() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (b.hasRemaining())
+                out.write(b);
+            out.force(true);
+        }
+        Files.move(temp, this.snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // From here the old journal is covered by the snapshot even if it isnt emptied yet
+        this.generation++;
+        this.writeHeader();
+        this.records = 0L;
+    }
+
+    /**
+     * Commits any waiting records and closes the journal
+     *
+     * @throws IOException - Thrown if the records couldnt be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.position >= 0L)
+                this.commit();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Buffers a record, committing the batch first if it is full
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @param cancel 1 for a cancellation, 0 for a booking
+     * @throws IOException - Thrown if a full batch couldnt be committed
+     */
+    private void append(boolean suite, int roomNo, int cancel) throws IOException {
+        if (this.position < 0L)
+            throw new IllegalStateException("The journal has not been recovered");
+        if (roomNo < 1 || roomNo > this.maxRoom)
+            throw new IllegalArgumentException("Room number must be between 1 and " + this.maxRoom);
+        if (!this.pending.hasRemaining())
+            this.commit();
+        int record = roomNo << 2 | (suite ? 2 : 0) | cancel;
+        this.pending.putInt(record).putInt(record ^ BookingJournal.CHECK);
+        this.records++;
+    }
+
+    /**
+     * Reads the generation from the journal header
+     *
+     * @return - The generation of the journal
+     * @throws IOException - Thrown if the file isnt a journal
+     */
+    private long readHeader() throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(BookingJournal.HEADER);
+        while (b.hasRemaining() && this.channel.read(b, b.position()) >= 0) {
+        }
+        b.flip();
+        if (b.getInt() != BookingJournal.MAGIC || b.getInt() != BookingJournal.VERSION)
+            throw new IOException(this.journalPath + " is not a booking journal");
+        return b.getLong();
+    }
+
+    /**
+     * Empties the journal and writes the header for the current generation
+     *
+     * @throws IOException - Thrown if the header couldnt be written
+     */
+    private void writeHeader() throws IOException {
+        this.channel.truncate(BookingJournal.HEADER);
+        ByteBuffer b = ByteBuffer.allocate(BookingJournal.HEADER);
+        b.putInt(BookingJournal.MAGIC).putInt(BookingJournal.VERSION).putLong(this.generation);
+        b.flip();
+        while (b.hasRemaining())
+            this.channel.write(b, b.position());
+        this.channel.force(true);
+        this.position = BookingJournal.HEADER;
+    }
+
+    /**
+     * Applies every complete record in the journal, leaving position after the last one
+     *
+     * @param booked The order each room was booked in, 0 if it isnt booked
+     * @param order The order of the last booking so far
+     * @param size The size of the journal file
+     * @return - The order of the last booking
+     * @throws IOException - Thrown if the journal couldnt be read
+     */
+    private long replay(long[] booked, long order, long size) throws IOException {
+        ByteBuffer b = ByteBuffer.allocateDirect(BookingJournal.BATCH * BookingJournal.RECORD * 16);
+        long read = BookingJournal.HEADER;
+        while (size - read >= BookingJournal.RECORD) {
+            b.clear();
+            int n = this.channel.read(b, read);
+            if (n < 0)
+                break;
+            read += n;
+            b.flip();
+            while (b.remaining() >= BookingJournal.RECORD) {
+                int record = b.getInt();
+                if ((b.getInt() ^ BookingJournal.CHECK) != record)
+                    return order;
+                int roomNo = record >>> 2;
+                if (roomNo < 1 || roomNo > this.maxRoom)
+                    return order;
+                int key = roomNo << 1 | (record >> 1 & 1);
+                if ((record & 1) == 0) {
+                    if (booked[key] == 0L)
+                        booked[key] = ++order;
+                } else {
+                    booked[key] = 0L;
+                }
+                this.position += BookingJournal.RECORD;
+                this.records++;
+            }
+            // Read a partial record again at the start of the next read
+            read -= b.remaining();
+        }
+        return order;
+    }
+
+}
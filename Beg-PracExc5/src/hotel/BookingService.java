@@ -0,0 +1,242 @@
+package hotel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * File: BookingService.java
+ * Date: 01/06/2017
+ * Notes: Books rooms for many threads at once, such as several front desks
+ * and an online channel. A room is claimed by compare-and-setting its bit in
+ * a RoomIndex, so checking that it is free and booking it happen as one step
+ * and two threads can never book the same room. No locks are held and no
+ * thread ever blocks, but the bits of 64 rooms share a word, so threads
+ * booking neighbouring rooms at the same moment may have to retry their
+ * compare-and-set. Rooms in different words never contend at all.
+ *
+ * Rooms are created by a RoomFactory, so each owner of a service can price
+ * its own rooms. The booked HotelRoom is only published after its claim has
+ * been journalled, and a cancellation takes the room back before releasing
+ * its bit, so the journal always holds the bookings and cancellations of
+ * each room in the order they happened.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class BookingService {
+
+    /**
+     * Creates rooms at the standard rates of HotelRoom and Suite
+     */
+    public static final RoomFactory STANDARD = new RoomFactory() {
+        @Override
+        public HotelRoom create(boolean suite, int roomNo) {
+            return suite ? new Suite(roomNo) : new HotelRoom(roomNo);
+        }
+    };
+
+    /**
+     * Which rooms have been claimed
+     */
+    private final RoomIndex index;
+
+    /**
+     * The booked room in each slot, indexed by roomNo * 2 + suite
+     */
+    private final AtomicReferenceArray<HotelRoom> slots;
+
+    /**
+     * Where bookings and cancellations are journalled, null if they arent
+     */
+    private final BookingJournal journal;
+
+    /**
+     * Creates the room Object of each booking
+     */
+    private final RoomFactory factory;
+
+    /**
+     * The main constructor for the BookingService Object
+     *
+     * @param maxRoom The highest room number that can be booked
+     * @param journal Where bookings and cancellations are journalled, null if they arent
+     * @param factory Creates the room Object of each booking
+     */
+    public BookingService(int maxRoom, BookingJournal journal, RoomFactory factory) {
+        this.index = new RoomIndex(maxRoom);
+        this.slots = new AtomicReferenceArray<HotelRoom>((maxRoom + 1) * 2);
+        this.journal = journal;
+        this.factory = factory;
+    }
+
+    /**
+     * Constructs the BookingService Object with rooms at the standard rates
+     *
+     * @param maxRoom The highest room number that can be booked
+     * @param journal Where bookings and cancellations are journalled, null if they arent
+     */
+    public BookingService(int maxRoom, BookingJournal journal) {
+        this(maxRoom, journal, BookingService.STANDARD);
+    }
+
+    /**
+     * Constructs the BookingService Object without a journal
+     *
+     * @param maxRoom The highest room number that can be booked
+     */
+    public BookingService(int maxRoom) {
+        this(maxRoom, null);
+    }
+
+    /**
+     * Books the room if it is free
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - The booked room, or null if it was already booked
+     * @throws IOException - Thrown if the booking couldnt be journalled, the room is left free
+     */
+    public HotelRoom book(boolean suite, int roomNo) throws IOException {
+        if (!this.index.book(suite, roomNo))
+            return null;
+        if (this.journal != null) {
+            try {
+                synchronized (this.journal) {
+                    this.journal.book(suite, roomNo);
+                }
+            } catch (IOException e) {
+                this.index.release(suite, roomNo);
+                throw e;
+            }
+        }
+        HotelRoom room = this.factory.create(suite, roomNo);
+        this.slots.set(BookingService.slot(suite, roomNo), room);
+        return room;
+    }
+
+    /**
+     * Books the lowest free room at or after the specified room, trying
+     * the next free room whenever another thread claims one first
+     *
+     * @param suite Whether or not to book a suite
+     * @param from The room number to start looking from
+     * @return - The booked room, or null if every room from there is booked
+     * @throws IOException - Thrown if the booking couldnt be journalled
+     */
+    public HotelRoom bookAny(boolean suite, int from) throws IOException {
+        int roomNo = this.index.nextFree(suite, from);
+        while (roomNo > 0) {
+            HotelRoom room = this.book(suite, roomNo);
+            if (room != null)
+                return room;
+            roomNo = this.index.nextFree(suite, roomNo + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Cancels the booking of the room
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - Whether or not the room was cancelled, false if it wasnt booked
+     * @throws IOException - Thrown if the cancellation couldnt be journalled, the room stays booked
+     */
+    public boolean cancel(boolean suite, int roomNo) throws IOException {
+        if (roomNo < 1 || roomNo > this.index.getMaxRoom())
+            return false;
+        int slot = BookingService.slot(suite, roomNo);
+        // Only the thread that takes the room back can release it
+        HotelRoom room = this.slots.getAndSet(slot, null);
+        if (room == null)
+            return false;
+        if (this.journal != null) {
+            try {
+                synchronized (this.journal) {
+                    this.journal.cancel(suite, roomNo);
+                }
+            } catch (IOException e) {
+                this.slots.set(slot, room);
+                throw e;
+            }
+        }
+        this.index.release(suite, roomNo);
+        return true;
+    }
+
+    /**
+     * Checks whether or not the room has been booked
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - Whether or not the room has been booked
+     */
+    public boolean isBooked(boolean suite, int roomNo) {
+        return this.index.isBooked(suite, roomNo);
+    }
+
+    /**
+     * Finds the lowest free room numbers within a range
+     *
+     * @param suite Whether or not to look for suites
+     * @param from The lowest room number to include
+     * @param to The highest room number to include
+     * @param n The most rooms to find
+     * @return - The free room numbers in ascending order, at most n of them
+     */
+    public int[] findFree(boolean suite, int from, int to, int n) {
+        return this.index.findFree(suite, from, to, n);
+    }
+
+    /**
+     * Gets the amount of rooms booked
+     *
+     * @return - The amount of rooms booked
+     */
+    public int size() {
+        return this.index.size();
+    }
+
+    /**
+     * Gets every booked room ordered by room number, normal rooms before suites
+     *
+     * @return - The booked rooms
+     */
+    public List<HotelRoom> getBooked() {
+        List<HotelRoom> booked = new ArrayList<HotelRoom>();
+        for (int type = 0; type < 2; type++)
+            for (int roomNo = 1; roomNo <= this.index.getMaxRoom(); roomNo++) {
+                HotelRoom room = this.slots.get(roomNo * 2 + type);
+                if (room != null)
+                    booked.add(room);
+            }
+        return booked;
+    }
+
+    /**
+     * Forces every journalled booking and cancellation to disk, so a batch
+     * of bookings from many threads only waits for one force
+     *
+     * @throws IOException - Thrown if the journal couldnt be written
+     */
+    public void commit() throws IOException {
+        if (this.journal != null)
+            synchronized (this.journal) {
+                this.journal.commit();
+            }
+    }
+
+    /**
+     * Gets the slot of a room
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - The slot of the room
+     */
+    private static int slot(boolean suite, int roomNo) {
+        return roomNo * 2 + (suite ? 1 : 0);
+    }
+
+}
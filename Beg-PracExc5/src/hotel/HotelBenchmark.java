@@ -0,0 +1,295 @@
+package hotel;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * File: HotelBenchmark.java
+ * Date: 01/06/2017
+ * Notes: Times the booking paths of HotelBookings so changes to them can be
+ * judged on measured numbers. Each case is warmed up so the JIT has compiled
+ * it and then timed over several runs, printing the average time and bytes
+ * allocated per operation along with how many garbage collections ran and
+ * how long they took while it was timed.
+ *
+ * Cases:
+ *   contains  - the original scan of the rooms list, the RoomIndex, and
+ *               HotelBookings.contains() (which only covers up to
+ *               MAX_ROOM_NUMBER rooms), at 10, 600 and 100,000 booked rooms
+ *   construct - creating HotelRoom and Suite Objects
+ *   getRate   - reading the rate from cents, and the rounding getRate() used to do
+ *   listBooked - building the text of every booked room
+ *
+ * Allocation is read from com.sun.management.ThreadMXBean and is shown as
+ * n/a on JVMs without it.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class HotelBenchmark {
+
+    /**
+     * The amounts of booked rooms that are benchmarked
+     */
+    private static final int[] SIZES = {10, 600, 100000};
+
+    /**
+     * The amount of operations in a single run of a case
+     */
+    private static final int OPS = 100000;
+
+    /**
+     * The amount of untimed runs before each case is timed
+     */
+    private static final int WARMUP = 20;
+
+    /**
+     * The amount of timed runs that are averaged for each case
+     */
+    private static final int RUNS = 20;
+
+    /**
+     * Stops the JIT from removing work whose results are never read
+     */
+    private static long sink;
+
+    /**
+     * A case that is benchmarked
+     */
+    private interface Case {
+
+        /**
+         * Runs the case once
+         *
+         * @return - The amount of operations run
+         */
+        int run();
+    }
+
+    /**
+     * Main method run to print the benchmark results
+     *
+     * @param args The command line arguments parsed to the program
+     */
+    public static void main(String[] args) {
+        System.out.println("case\trooms\tns/op\tB/op\tgc count\tgc ms");
+        for (int size : HotelBenchmark.SIZES) {
+            final List<HotelRoom> list = HotelBenchmark.generate(size);
+            final RoomIndex index = new RoomIndex(Math.max(size, HotelBookings.MAX_ROOM_NUMBER));
+            index.rebuild(list);
+            final int[] probes = HotelBenchmark.probes(size);
+            HotelBenchmark.time("contains list scan", size, new Case() {
+                @Override
+                public int run() {
+                    int ops = Math.max(64, HotelBenchmark.OPS / list.size());
+                    for (int i = 0; i < ops; i++) {
+                        int probe = probes[i & (probes.length - 1)];
+                        if (HotelBenchmark.scan(list, (probe & 1) == 1, probe >> 1))
+                            HotelBenchmark.sink++;
+                    }
+                    return ops;
+                }
+            });
+            HotelBenchmark.time("contains room index", size, new Case() {
+                @Override
+                public int run() {
+                    for (int i = 0; i < HotelBenchmark.OPS; i++) {
+                        int probe = probes[i & (probes.length - 1)];
+                        if (index.isBooked((probe & 1) == 1, probe >> 1))
+                            HotelBenchmark.sink++;
+                    }
+                    return HotelBenchmark.OPS;
+                }
+            });
+            if (size <= HotelBookings.MAX_ROOM_NUMBER) {
+                // Put back whatever was booked before once the case has run
+                List<HotelRoom> saved = new ArrayList<HotelRoom>(HotelBookings.rooms);
+                HotelBookings.rooms.clear();
+                HotelBookings.rooms.addAll(list);
+                try {
+                    HotelBenchmark.time("contains HotelBookings", size, new Case() {
+                        @Override
+                        public int run() {
+                            for (int i = 0; i < HotelBenchmark.OPS; i++) {
+                                int probe = probes[i & (probes.length - 1)];
+                                if (HotelBookings.contains((probe & 1) == 1, probe >> 1))
+                                    HotelBenchmark.sink++;
+                            }
+                            return HotelBenchmark.OPS;
+                        }
+                    });
+                } finally {
+                    HotelBookings.rooms.clear();
+                    HotelBookings.rooms.addAll(saved);
+                    HotelBookings.sync();
+                }
+            } else {
+                System.out.println("contains HotelBookings\t" + size + "\tskipped");
+            }
+            HotelBenchmark.time("listBooked text", size, new Case() {
+                @Override
+                public int run() {
+                    int ops = Math.max(1, HotelBenchmark.OPS / 10 / list.size());
+                    for (int i = 0; i < ops; i++)
+                        HotelBenchmark.sink += HotelBookings.describeBooked(list).length();
+                    return ops;
+                }
+            });
+        }
+        HotelBenchmark.time("construct HotelRoom", 1, new Case() {
+            @Override
+            public int run() {
+                for (int i = 0; i < HotelBenchmark.OPS; i++)
+                    HotelBenchmark.sink += new HotelRoom(i % 600 + 1).getRateCents();
+                return HotelBenchmark.OPS;
+            }
+        });
+        HotelBenchmark.time("construct Suite", 1, new Case() {
+            @Override
+            public int run() {
+                for (int i = 0; i < HotelBenchmark.OPS; i++)
+                    HotelBenchmark.sink += new Suite(i % 600 + 1).getRateCents();
+                return HotelBenchmark.OPS;
+            }
+        });
+        final HotelRoom[] rooms = HotelBenchmark.generate(1024).toArray(new HotelRoom[1024]);
+        HotelBenchmark.time("getRate cents", 1, new Case() {
+            @Override
+            public int run() {
+                double total = 0D;
+                for (int i = 0; i < HotelBenchmark.OPS; i++)
+                    total += rooms[i & 1023].getRate();
+                HotelBenchmark.sink += (long) total;
+                return HotelBenchmark.OPS;
+            }
+        });
+        HotelBenchmark.time("getRate old rounding", 1, new Case() {
+            @Override
+            public int run() {
+                double total = 0D;
+                for (int i = 0; i < HotelBenchmark.OPS; i++) {
+                    double rate = rooms[i & 1023].getRateCents() / 100D;
+                    total += Math.round(rate * 100D) / 100D;
+                }
+                HotelBenchmark.sink += (long) total;
+                return HotelBenchmark.OPS;
+            }
+        });
+        if (HotelBenchmark.sink == 42L)
+            System.out.println();
+    }
+
+    /**
+     * Runs the case and prints the average time and allocation of each operation
+     *
+     * @param name The name of the case
+     * @param size The amount of rooms in the case
+     * @param task The work that is to be timed
+     */
+    private static void time(String name, int size, Case task) {
+        for (int i = 0; i < HotelBenchmark.WARMUP; i++)
+            task.run();
+        long gcs = HotelBenchmark.gcCount(), gcTime = HotelBenchmark.gcTime();
+        long bytes = HotelBenchmark.allocated();
+        long ops = 0L;
+        long start = System.nanoTime();
+        for (int i = 0; i < HotelBenchmark.RUNS; i++)
+            ops += task.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = HotelBenchmark.allocated() - bytes;
+        String perOp = bytes < 0L ? "n/a" : String.format("%.1f", allocated / (double) ops);
+        System.out.println(name + "\t" + size + "\t" + String.format("%.2f", elapsed / (double) ops)
+                + "\t" + perOp + "\t" + (HotelBenchmark.gcCount() - gcs)
+                + "\t" + (HotelBenchmark.gcTime() - gcTime));
+    }
+
+    /**
+     * Gets the bytes allocated by the current thread so far
+     *
+     * @return - The bytes allocated, or -1 if the JVM cant tell
+     */
+    private static long allocated() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1L;
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Gets the amount of garbage collections run so far
+     *
+     * @return - The amount of collections
+     */
+    private static long gcCount() {
+        long count = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0L, gc.getCollectionCount());
+        return count;
+    }
+
+    /**
+     * Gets the time spent in garbage collection so far
+     *
+     * @return - The time in milliseconds
+     */
+    private static long gcTime() {
+        long time = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            time += Math.max(0L, gc.getCollectionTime());
+        return time;
+    }
+
+    /**
+     * Creates booked rooms, alternating normal rooms and suites
+     *
+     * @param size The amount of rooms to create
+     * @return - The booked rooms
+     */
+    private static List<HotelRoom> generate(int size) {
+        List<HotelRoom> rooms = new ArrayList<HotelRoom>(size);
+        for (int i = 0; i < size; i++)
+            rooms.add((i & 1) == 1 ? new Suite(i / 2 + 1) : new HotelRoom(i / 2 + 1));
+        return rooms;
+    }
+
+    /**
+     * Creates 1024 rooms to look up, about half of them booked, each packed
+     * as roomNo * 2 + suite. Room numbers go up to the amount of booked rooms
+     * as generate() books each number once as a normal room and once as a suite
+     *
+     * @param size The amount of booked rooms
+     * @return - The rooms to look up
+     */
+    private static int[] probes(int size) {
+        Random random = new Random(size);
+        int[] probes = new int[1024];
+        for (int i = 0; i < probes.length; i++)
+            probes[i] = (random.nextInt(size) + 1) << 1 | random.nextInt(2);
+        return probes;
+    }
+
+    /**
+     * The scan of the rooms list that HotelBookings.contains() originally used
+     *
+     * @param rooms The booked rooms
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - Whether or not the room has been booked
+     */
+    private static boolean scan(List<HotelRoom> rooms, boolean suite, int roomNo) {
+        for (HotelRoom r : rooms) {
+            if (r instanceof Suite) {
+                if (suite && r.getRoomNo() == roomNo)
+                    return true;
+            } else {
+                if (!suite && r.getRoomNo() == roomNo)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -1,6 +1,8 @@
 package hotel;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import javax.swing.JOptionPane;
 
@@ -13,9 +15,10 @@ import javax.swing.JOptionPane;
 public class HotelBookings {
 
     /**
-     * Stores all HotelRoom Objects that are created
+     * Stores all HotelRoom Objects that are created, counting every change so
+     * the index of booked rooms can be kept in sync with it
      */
-    public static List<HotelRoom> rooms = new ArrayList<HotelRoom>();
+    public static final RoomList rooms = new RoomList();
     
     /**
      * Indicates to the main loop whether the program should run another loop
@@ -27,14 +30,68 @@ public class HotelBookings {
      */
     public static final int MAX_ROOM_NUMBER = 600;
     
+    /**
+     * Indexes which rooms in the rooms list are booked
+     */
+    public static final RoomIndex BOOKED = new RoomIndex(HotelBookings.MAX_ROOM_NUMBER);
+    
+    /**
+     * The amount of changes made to the rooms list when the index was last brought up to date
+     */
+    private static long indexed = 0L;
+    
+    /**
+     * Stores all dated reservations for every room
+     */
+    public static final ReservationBook RESERVATIONS = new ReservationBook(HotelBookings.MAX_ROOM_NUMBER);
+    
+    /**
+     * The pricing rules used to quote dated reservations. There are none
+     * unless they are added, so quotes are at the standard rates
+     */
+    public static final RateRules RATE_RULES = new RateRules();
+    
+    /**
+     * The amount of nights ahead that rates are worked out for in RATE_TABLE
+     */
+    public static final int RATE_DAYS = 366;
+    
+    /**
+     * Every nightly rate from today for RATE_DAYS nights, null until first needed
+     */
+    private static volatile RateTable rateTable;
+    
+    /**
+     * The amount of free rooms suggested for each rate band
+     */
+    public static final int SUGGESTIONS = 5;
+    
+    /**
+     * The location of the journal of bookings and cancellations
+     */
+    public static final String JOURNAL = "bookings.journal";
+    
+    /**
+     * The location of the snapshot of booked rooms
+     */
+    public static final String SNAPSHOT = "bookings.snapshot";
+    
+    /**
+     * Keeps the booked rooms on disk, null if the journal couldnt be opened
+     */
+    private static BookingJournal journal;
+    
     /**
      * contains the menu text to be displayed to the user
      */
     public static final String MENU_TEXT = "--HOTEL RENTAL SYSTEM--\n\n"
             + "1. Choose a room type\n"
             + "2. Room rates information\n"
-            + "3. Rooms currently booked\n\n"
-            + "4. Exit";
+            + "3. Rooms currently booked\n"
+            + "4. Reserve a room for dates\n"
+            + "5. Nightly revenue report\n"
+            + "6. Cancel a booked room\n\n"
+            + "7. Exit";
 
     /**
      * Main method run when jar is run
@@ -42,9 +99,42 @@ public class HotelBookings {
      * @param args The command line arguments parsed to the program
      */
     public static void main(String[] args) {
+        HotelBookings.open();
         while (HotelBookings.running) {
             HotelBookings.mainMenu();
         }
+        HotelBookings.close();
+    }
+
+    /**
+     * Opens the journal and recovers the rooms that were booked when the program last ran
+     */
+    public static void open() {
+        try {
+            HotelBookings.journal = new BookingJournal
+                        (HotelBookings.JOURNAL, HotelBookings.SNAPSHOT, HotelBookings.MAX_ROOM_NUMBER);
+            HotelBookings.journal.recover(HotelBookings.rooms);
+            HotelBookings.sync();
+        } catch (IOException e) {
+            HotelBookings.error("Error reading the booking journal " + HotelBookings.JOURNAL
+                    + "\n" + e.getMessage() + "\nBookings will not be saved");
+            HotelBookings.closeJournal();
+            HotelBookings.rooms.clear();
+        }
+    }
+
+    /**
+     * Commits any bookings still waiting to be written and closes the journal
+     */
+    public static void close() {
+        if (HotelBookings.journal == null)
+            return;
+        try {
+            HotelBookings.journal.commit();
+        } catch (IOException e) {
+            HotelBookings.error("Error writing to the booking journal " + HotelBookings.JOURNAL + "\n" + e.getMessage());
+        }
+        HotelBookings.closeJournal();
     }
 
     /**
@@ -71,9 +161,15 @@ public class HotelBookings {
         } else if (num == 3) {
             HotelBookings.listBooked();
         } else if (num == 4) {
+            HotelBookings.reserveDates();
+        } else if (num == 5) {
+            HotelBookings.revenueReport();
+        } else if (num == 6) {
+            HotelBookings.cancelRoom();
+        } else if (num == 7) {
             HotelBookings.running = false;
         } else {
-            HotelBookings.error("Please only enter a number between 1 and 4");
+            HotelBookings.error("Please only enter a number between 1 and 7");
         }
     }
 
@@ -85,10 +181,13 @@ public class HotelBookings {
         if (temp < 0)
             return;
         boolean suite = temp == 1;
+        StringBuilder prompt = new StringBuilder("Enter room number\n");
+        HotelBookings.appendFree(prompt, suite, false);
+        HotelBookings.appendFree(prompt, suite, true);
         int num = -1;
         while (num < 1 || num > HotelBookings.MAX_ROOM_NUMBER) {
             String input = JOptionPane.showInputDialog
-                        (null, "Enter room number", "Input", JOptionPane.QUESTION_MESSAGE);
+                        (null, prompt.toString(), "Input", JOptionPane.QUESTION_MESSAGE);
             if (input == null)
                 return;
             try {
@@ -102,19 +201,246 @@ public class HotelBookings {
                 HotelBookings.error("Please only enter a number between 1 and " + HotelBookings.MAX_ROOM_NUMBER);
                 num = -1;
             }
-            if (HotelBookings.contains(suite, num)) {
-                HotelBookings.error("That room is already booked, please try another room type or number");
-                return;
-            }
         }
         int index = HotelBookings.rooms.size();
-        if (suite) {
-            HotelBookings.rooms.add(new Suite(num));
-        } else {
-            HotelBookings.rooms.add(new HotelRoom(num));
+        // Claiming the room and checking it was free happen together so it cant be booked twice
+        if (!HotelBookings.book(suite ? new Suite(num) : new HotelRoom(num))) {
+            boolean above = num >= HotelRoom.RATE_CHANGE;
+            StringBuilder b = new StringBuilder("That room is already booked");
+            if (HotelBookings.findFree(suite, above, 1).length == 0
+                    && HotelBookings.findFree(suite, !above, 1).length == 0) {
+                b.append(" and there are no other rooms of that type free");
+            } else {
+                b.append(", please try another room type or number\n");
+                HotelBookings.appendFree(b, suite, above);
+                HotelBookings.appendFree(b, suite, !above);
+            }
+            HotelBookings.error(b.toString());
+            return;
         }
+        HotelBookings.commit();
         HotelBookings.display(index);
     }
+    
+    /**
+     * Adds the room to the booked rooms and the index of booked rooms if it isnt already booked
+     * 
+     * @param room The room to be booked
+     * @return - Whether or not the room was booked, false if it was already booked
+     */
+    public static boolean book(HotelRoom room) {
+        HotelBookings.sync();
+        if (!HotelBookings.BOOKED.book(room instanceof Suite, room.getRoomNo()))
+            return false;
+        HotelBookings.rooms.add(room);
+        HotelBookings.indexed = HotelBookings.rooms.getChanges();
+        if (HotelBookings.journal != null) {
+            try {
+                HotelBookings.journal.book(room instanceof Suite, room.getRoomNo());
+            } catch (IOException e) {
+                HotelBookings.journalError(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the lowest free rooms of a type within a rate band
+     * 
+     * @param suite Whether or not to look for suites
+     * @param above True for rooms from RATE_CHANGE up, false for rooms below it
+     * @param n The most rooms to find
+     * @return - The free room numbers in ascending order, at most n of them
+     */
+    public static int[] findFree(boolean suite, boolean above, int n) {
+        HotelBookings.sync();
+        if (above)
+            return HotelBookings.BOOKED.findFree(suite, HotelRoom.RATE_CHANGE, HotelBookings.MAX_ROOM_NUMBER, n);
+        return HotelBookings.BOOKED.findFree(suite, 1, HotelRoom.RATE_CHANGE - 1, n);
+    }
+
+    /**
+     * Appends a line listing the first few free rooms of a type within a rate band
+     * 
+     * @param b Where the line is appended
+     * @param suite Whether or not to list suites
+     * @param above True for rooms from RATE_CHANGE up, false for rooms below it
+     */
+    private static void appendFree(StringBuilder b, boolean suite, boolean above) {
+        int[] free = HotelBookings.findFree(suite, above, HotelBookings.SUGGESTIONS);
+        long rate = above ? HotelRoom.ABOVE_CENTS : HotelRoom.BELOW_CENTS;
+        b.append("\nFree at $");
+        Money.append(b, suite ? rate + Suite.INCREASE_CENTS : rate).append(": ");
+        if (free.length == 0)
+            b.append("none");
+        for (int i = 0; i < free.length; i++)
+            b.append(i == 0 ? "" : ", ").append(free[i]);
+    }
+
+    /**
+     * Removes the room from the booked rooms and the index of booked rooms
+     * 
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - Whether or not the room had been booked
+     */
+    public static boolean cancel(boolean suite, int roomNo) {
+        HotelBookings.sync();
+        if (!HotelBookings.BOOKED.isBooked(suite, roomNo))
+            return false;
+        for (int i = 0; i < HotelBookings.rooms.size(); i++) {
+            HotelRoom r = HotelBookings.rooms.get(i);
+            if (r.getRoomNo() == roomNo && r instanceof Suite == suite) {
+                HotelBookings.rooms.remove(i);
+                break;
+            }
+        }
+        HotelBookings.BOOKED.release(suite, roomNo);
+        HotelBookings.indexed = HotelBookings.rooms.getChanges();
+        if (HotelBookings.journal != null) {
+            try {
+                HotelBookings.journal.cancel(suite, roomNo);
+            } catch (IOException e) {
+                HotelBookings.journalError(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forces every journalled booking and cancellation to disk, taking a
+     * snapshot of the booked rooms if one is due
+     */
+    public static void commit() {
+        if (HotelBookings.journal == null)
+            return;
+        try {
+            if (HotelBookings.journal.isSnapshotDue())
+                HotelBookings.journal.snapshot(HotelBookings.rooms);
+            else
+                HotelBookings.journal.commit();
+        } catch (IOException e) {
+            HotelBookings.journalError(e);
+        }
+    }
+
+    /**
+     * Prompts the user with the required inputs to cancel a booked room
+     */
+    public static void cancelRoom() {
+        int temp = HotelBookings.askIsSuite();
+        if (temp < 0)
+            return;
+        boolean suite = temp == 1;
+        int num = HotelBookings.askRoomNumber();
+        if (num < 0)
+            return;
+        if (HotelBookings.cancel(suite, num)) {
+            HotelBookings.commit();
+            HotelBookings.message((suite ? "Suite" : "Room") + " No. " + num + " has been cancelled");
+        } else {
+            HotelBookings.error("That room is not booked");
+        }
+    }
+
+    /**
+     * Prompts the user with the required inputs to reserve a room between two dates
+     */
+    public static void reserveDates() {
+        int temp = HotelBookings.askIsSuite();
+        if (temp < 0)
+            return;
+        boolean suite = temp == 1;
+        int num = HotelBookings.askRoomNumber();
+        if (num < 0)
+            return;
+        LocalDate checkIn = HotelBookings.askDate("Enter check in date (YYYY-MM-DD)");
+        if (checkIn == null)
+            return;
+        LocalDate checkOut = HotelBookings.askDate("Enter check out date (YYYY-MM-DD)");
+        if (checkOut == null)
+            return;
+        if (!checkOut.isAfter(checkIn)) {
+            HotelBookings.error("The check out date must be after the check in date");
+            return;
+        }
+        Reservation reservation = new Reservation(num, suite, checkIn, checkOut);
+        if (HotelBookings.RESERVATIONS.reserve(reservation)) {
+            StringBuilder b = new StringBuilder("--Room Reserved--\n");
+            b.append(reservation.toString()).append("\nTotal $");
+            Money.append(b, HotelBookings.getRateTable().quote(reservation));
+            HotelBookings.message(b.toString());
+        } else {
+            StringBuilder b = new StringBuilder("That room is already reserved for some of those nights:\n");
+            for (Reservation r : HotelBookings.RESERVATIONS.overlapping
+                    (suite, num, reservation.getCheckIn(), reservation.getCheckOut()))
+                b.append(r.toString()).append("\n");
+            HotelBookings.error(b.toString());
+        }
+    }
+    
+    /**
+     * Gets the table of nightly rates from today, compiling RATE_RULES again
+     * the first time it is used each day and whenever a rule has been added
+     * 
+     * @return - The table of nightly rates
+     */
+    public static RateTable getRateTable() {
+        RateTable table = HotelBookings.rateTable;
+        if (table == null || !table.isCurrent()) {
+            synchronized (HotelBookings.class) {
+                table = HotelBookings.rateTable;
+                if (table == null || !table.isCurrent()) {
+                    table = HotelBookings.RATE_RULES.compile
+                                (HotelBookings.MAX_ROOM_NUMBER, LocalDate.now(), HotelBookings.RATE_DAYS);
+                    HotelBookings.rateTable = table;
+                }
+            }
+        }
+        return table;
+    }
+    
+    /**
+     * Prompts the user for a room number until a valid one is entered
+     * 
+     * @return - The room number, or -1 if the user cancelled
+     */
+    public static int askRoomNumber() {
+        while (true) {
+            String input = JOptionPane.showInputDialog
+                        (null, "Enter room number", "Input", JOptionPane.QUESTION_MESSAGE);
+            if (input == null)
+                return -1;
+            try {
+                int num = Integer.parseInt(input);
+                if (num >= 1 && num <= HotelBookings.MAX_ROOM_NUMBER)
+                    return num;
+                HotelBookings.error("Please only enter a number between 1 and " + HotelBookings.MAX_ROOM_NUMBER);
+            } catch (NumberFormatException e) {
+                HotelBookings.error("Please only enter a number for the input");
+            }
+        }
+    }
+    
+    /**
+     * Prompts the user for a date until a valid one is entered
+     * 
+     * @param text The text of the prompt
+     * @return - The date entered, or null if the user cancelled
+     */
+    public static LocalDate askDate(String text) {
+        while (true) {
+            String input = JOptionPane.showInputDialog
+                        (null, text, "Input", JOptionPane.QUESTION_MESSAGE);
+            if (input == null)
+                return null;
+            try {
+                return LocalDate.parse(input.trim());
+            } catch (DateTimeParseException e) {
+                HotelBookings.error("Please only enter a date in the format YYYY-MM-DD");
+            }
+        }
+    }
 
     /**
      * Prompts the user with the required inputs to find out whether the user
@@ -157,9 +483,12 @@ public class HotelBookings {
     public static void displayRates() {
         StringBuilder b = new StringBuilder("NIGHTLY ROOM RATES\n\n");
         b.append("Rooms numbered 1-").append(HotelRoom.RATE_CHANGE - 1);
-        b.append(" = $").append(HotelRoom.BELOW).append("\n");
-        b.append("All other rooms are $").append(HotelRoom.ABOVE);
-        b.append("\n\nSuites have an extra $").append(Suite.INCREASE);
+        b.append(" = $");
+        Money.append(b, HotelRoom.BELOW_CENTS).append("\n");
+        b.append("All other rooms are $");
+        Money.append(b, HotelRoom.ABOVE_CENTS);
+        b.append("\n\nSuites have an extra $");
+        Money.append(b, Suite.INCREASE_CENTS);
         b.append(" surcharge applied");
         HotelBookings.message(b.toString());
     }
@@ -168,14 +497,43 @@ public class HotelBookings {
      * Prompts the user with all information about all HotelRoom Objects that are booked
      */
     public static void listBooked() {
+        HotelBookings.message(HotelBookings.describeBooked(HotelBookings.rooms));
+    }
+
+    /**
+     * Gets the text listing all information about the booked rooms
+     * 
+     * @param booked The booked rooms
+     * @return - The text listing the booked rooms
+     */
+    public static String describeBooked(List<HotelRoom> booked) {
         StringBuilder b = new StringBuilder("--Rooms Booked out--\n");
-        if (HotelBookings.rooms.isEmpty()) {
+        if (booked.isEmpty()) {
             b.append("\nNo Rooms are Booked!");
         } else {
-            for (HotelRoom r : HotelBookings.rooms) {
+            for (HotelRoom r : booked) {
                 b.append(r.toString()).append("\n");
             }
         }
+        return b.toString();
+    }
+
+    /**
+     * Writes the nightly revenue report of all booked rooms and notifies the user of the file
+     */
+    public static void revenueReport() {
+        RevenueReport report = RevenueReport.of(HotelBookings.rooms);
+        try {
+            report.write(RevenueReport.OUTPUT);
+        } catch (IOException e) {
+            HotelBookings.error("Error writing to file " + RevenueReport.OUTPUT + "\n" + e.getMessage());
+            return;
+        }
+        StringBuilder b = new StringBuilder(RevenueReport.OUTPUT);
+        b.append(" has been created with the full report\n\n");
+        b.append("Rooms booked: ").append(report.getRooms());
+        b.append("\nNightly revenue $");
+        Money.append(b, report.getRevenueCents());
         HotelBookings.message(b.toString());
     }
 
@@ -202,20 +560,44 @@ public class HotelBookings {
      * @return - Whether or not the specified room has been booked
      */
     public static boolean contains(boolean suite, int roomNo) {
-        if (HotelBookings.rooms.isEmpty())
-            return false;
-        for (HotelRoom r : HotelBookings.rooms) {
-            if (r instanceof Suite) {
-                if (suite)
-                    if (r.getRoomNo() == roomNo)
-                        return true;
-            } else {
-                if (!suite)
-                    if (r.getRoomNo() == roomNo)
-                        return true;
-            }
+        HotelBookings.sync();
+        return HotelBookings.BOOKED.isBooked(suite, roomNo);
+    }
+    
+    /**
+     * Rebuilds the index of booked rooms if the rooms list has been changed
+     * without going through book() or cancel()
+     */
+    public static void sync() {
+        if (HotelBookings.indexed != HotelBookings.rooms.getChanges()) {
+            HotelBookings.BOOKED.rebuild(HotelBookings.rooms);
+            HotelBookings.indexed = HotelBookings.rooms.getChanges();
+        }
+    }
+
+    /**
+     * Notifies the user that the journal failed and stops journalling
+     * 
+     * @param e The error from the journal
+     */
+    private static void journalError(IOException e) {
+        HotelBookings.error("Error writing to the booking journal " + HotelBookings.JOURNAL
+                + "\n" + e.getMessage() + "\nBookings will no longer be saved");
+        HotelBookings.closeJournal();
+    }
+
+    /**
+     * Closes the journal, ignoring any errors
+     */
+    private static void closeJournal() {
+        if (HotelBookings.journal == null)
+            return;
+        try {
+            HotelBookings.journal.close();
+        } catch (IOException e) {
+            // Nothing more can be saved
         }
-        return false;
+        HotelBookings.journal = null;
     }
 
     // NOTE: Both of the below methods were copied from Prac Exc 4
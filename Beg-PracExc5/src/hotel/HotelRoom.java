@@ -13,15 +13,25 @@ public class HotelRoom {
      */
     public static final int RATE_CHANGE = 300;
     
+    /**
+     * Indicates the lower nightly rate of a room in cents
+     */
+    public static final long BELOW_CENTS = 6995L;
+    
+    /**
+     * Indicates the higher nightly rate of a room in cents
+     */
+    public static final long ABOVE_CENTS = 8995L;
+    
     /**
      * Indicates the lower nightly rate of a room
      */
-    public static final double BELOW = 69.95D;
+    public static final double BELOW = HotelRoom.BELOW_CENTS / 100D;
     
     /**
      * Indicates the higher nightly rate of a room
      */
-    public static final double ABOVE = 89.95D;
+    public static final double ABOVE = HotelRoom.ABOVE_CENTS / 100D;
 
     /**
      * The number of the current HotelRoom Object
@@ -29,9 +39,9 @@ public class HotelRoom {
     private final int roomNo;
     
     /**
-     * The nightly rate for the current HotelRoom Object
+     * The nightly rate for the current HotelRoom Object in cents
      */
-    private double rate;
+    private long rate;
 
     /**
      * The main constructor for the HotelRoom Object
@@ -41,9 +51,9 @@ public class HotelRoom {
     public HotelRoom(int roomNo) {
         this.roomNo = roomNo;
         if (roomNo < HotelRoom.RATE_CHANGE) {
-            this.rate = HotelRoom.BELOW;
+            this.rate = HotelRoom.BELOW_CENTS;
         } else {
-            this.rate = HotelRoom.ABOVE;
+            this.rate = HotelRoom.ABOVE_CENTS;
         }
     }
 
@@ -62,25 +72,52 @@ public class HotelRoom {
      * @return - The nightly room rate
      */
     public double getRate() {
-        return (double) (Math.round(this.rate * 100D) / 100D);
+        return Money.toDollars(this.rate);
     }
 
     /**
-     * Sets the nightly rate of the room
+     * Gets the nightly room rate in cents
+     * 
+     * @return - The nightly room rate in cents
+     */
+    public long getRateCents() {
+        return this.rate;
+    }
+
+    /**
+     * Sets the nightly rate of the room, rounded to the nearest cent
      * 
      * @param rate The new nightly rate
      */
     public void setRate(double rate) {
-        this.rate = rate;
+        this.rate = Money.toCents(rate);
     }
 
     /**
-     * Increases the nightly rate of the room
+     * Sets the nightly rate of the room
+     * 
+     * @param cents The new nightly rate in cents
+     */
+    public void setRateCents(long cents) {
+        this.rate = cents;
+    }
+
+    /**
+     * Increases the nightly rate of the room, rounded to the nearest cent
      * 
      * @param rate The amount to add to the current rate
      */
     public void increaseRate(double rate) {
-        this.rate += rate;
+        this.rate += Money.toCents(rate);
+    }
+
+    /**
+     * Increases the nightly rate of the room
+     * 
+     * @param cents The amount in cents to add to the current rate
+     */
+    public void increaseRateCents(long cents) {
+        this.rate += cents;
     }
 
     /**
@@ -92,7 +129,7 @@ public class HotelRoom {
     public String toString() {
         StringBuilder b = new StringBuilder("\nRoom No. ");
         b.append(this.getRoomNo()).append("\nNightly Rate $");
-        b.append(this.getRate());
+        Money.append(b, this.rate);
         return b.toString();
     }
 
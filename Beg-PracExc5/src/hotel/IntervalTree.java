@@ -0,0 +1,225 @@
+package hotel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: IntervalTree.java
+ * Date: 01/06/2017
+ * Notes: Balanced (AVL) tree of reservations ordered by check in day, where
+ * every node also remembers the latest check out in its subtree. A search
+ * can then skip any subtree that ends before the range starts, so overlap
+ * and availability checks take O(log n) however many past stays are stored.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class IntervalTree {
+
+    /**
+     * The top of the tree, null when it is empty
+     */
+    private Node root;
+
+    /**
+     * The amount of reservations in the tree
+     */
+    private int size;
+
+    /**
+     * Adds a reservation to the tree
+     *
+     * @param reservation The reservation to be added
+     */
+    public void insert(Reservation reservation) {
+        this.root = IntervalTree.insert(this.root, reservation);
+        this.size++;
+    }
+
+    /**
+     * Checks whether or not any reservation shares a night with the range
+     *
+     * @param from The first night of the range, days since 1970-01-01
+     * @param to The day after the last night of the range, days since 1970-01-01
+     * @return - Whether or not any reservation overlaps the range
+     */
+    public boolean overlaps(int from, int to) {
+        Node n = this.root;
+        while (n != null) {
+            if (n.value.overlaps(from, to))
+                return true;
+            // If anything on the left ends after the range starts it either
+            // overlaps or everything on the right starts too late to
+            if (n.left != null && n.left.maxEnd > from)
+                n = n.left;
+            else
+                n = n.right;
+        }
+        return false;
+    }
+
+    /**
+     * Gets every reservation that shares a night with the range
+     *
+     * @param from The first night of the range, days since 1970-01-01
+     * @param to The day after the last night of the range, days since 1970-01-01
+     * @return - The overlapping reservations ordered by check in
+     */
+    public List<Reservation> overlapping(int from, int to) {
+        List<Reservation> found = new ArrayList<Reservation>();
+        IntervalTree.collect(this.root, from, to, found);
+        return found;
+    }
+
+    /**
+     * Gets the amount of reservations in the tree
+     *
+     * @return - The amount of reservations
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds every reservation in the subtree overlapping the range, in order
+     *
+     * @param n The top of the subtree
+     * @param from The first night of the range
+     * @param to The day after the last night of the range
+     * @param found Where the reservations are added
+     */
+    private static void collect(Node n, int from, int to, List<Reservation> found) {
+        if (n == null || n.maxEnd <= from)
+            return;
+        IntervalTree.collect(n.left, from, to, found);
+        if (n.value.overlaps(from, to))
+            found.add(n.value);
+        if (n.value.getCheckIn() < to)
+            IntervalTree.collect(n.right, from, to, found);
+    }
+
+    /**
+     * Adds a reservation to the subtree and rebalances it
+     *
+     * @param n The top of the subtree
+     * @param value The reservation to be added
+     * @return - The new top of the subtree
+     */
+    private static Node insert(Node n, Reservation value) {
+        if (n == null)
+            return new Node(value);
+        if (value.getCheckIn() < n.value.getCheckIn())
+            n.left = IntervalTree.insert(n.left, value);
+        else
+            n.right = IntervalTree.insert(n.right, value);
+        return IntervalTree.balance(n);
+    }
+
+    /**
+     * Rotates the subtree if one side has grown 2 levels taller than the other
+     *
+     * @param n The top of the subtree
+     * @return - The new top of the subtree
+     */
+    private static Node balance(Node n) {
+        n.update();
+        int diff = Node.height(n.left) - Node.height(n.right);
+        if (diff > 1) {
+            if (Node.height(n.left.left) < Node.height(n.left.right))
+                n.left = IntervalTree.rotateLeft(n.left);
+            return IntervalTree.rotateRight(n);
+        }
+        if (diff < -1) {
+            if (Node.height(n.right.right) < Node.height(n.right.left))
+                n.right = IntervalTree.rotateRight(n.right);
+            return IntervalTree.rotateLeft(n);
+        }
+        return n;
+    }
+
+    /**
+     * Rotates the subtree so its left child becomes the top
+     *
+     * @param n The top of the subtree
+     * @return - The new top of the subtree
+     */
+    private static Node rotateRight(Node n) {
+        Node top = n.left;
+        n.left = top.right;
+        top.right = n;
+        n.update();
+        top.update();
+        return top;
+    }
+
+    /**
+     * Rotates the subtree so its right child becomes the top
+     *
+     * @param n The top of the subtree
+     * @return - The new top of the subtree
+     */
+    private static Node rotateLeft(Node n) {
+        Node top = n.right;
+        n.right = top.left;
+        top.left = n;
+        n.update();
+        top.update();
+        return top;
+    }
+
+    /**
+     * A single reservation in the tree
+     */
+    private static class Node {
+
+        /**
+         * The reservation stored in the node
+         */
+        private final Reservation value;
+
+        /**
+         * The children of the node
+         */
+        private Node left, right;
+
+        /**
+         * The height of the subtree and the latest check out within it
+         */
+        private int height, maxEnd;
+
+        /**
+         * The main constructor for the Node Object
+         *
+         * @param value The reservation stored in the node
+         */
+        private Node(Reservation value) {
+            this.value = value;
+            this.height = 1;
+            this.maxEnd = value.getCheckOut();
+        }
+
+        /**
+         * Recalculates the height and latest check out from the children
+         */
+        private void update() {
+            this.height = Math.max(Node.height(this.left), Node.height(this.right)) + 1;
+            int max = this.value.getCheckOut();
+            if (this.left != null && this.left.maxEnd > max)
+                max = this.left.maxEnd;
+            if (this.right != null && this.right.maxEnd > max)
+                max = this.right.maxEnd;
+            this.maxEnd = max;
+        }
+
+        /**
+         * Gets the height of a subtree
+         *
+         * @param n The top of the subtree
+         * @return - The height, 0 if it is empty
+         */
+        private static int height(Node n) {
+            return n == null ? 0 : n.height;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package hotel;
+
+import java.io.IOException;
+
+/**
+ * File: Money.java
+ * Date: 01/06/2017
+ * Notes: Amounts of money are kept as whole cents in a long so that adding
+ * up rates never drifts the way doubles do. Amounts are written as dollars
+ * with 2 decimal places one digit at a time, without creating any Strings.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public final class Money {
+
+    /**
+     * The amount of cents in a dollar
+     */
+    public static final long CENTS = 100L;
+
+    /**
+     * Money only has static methods
+     */
+    private Money() {
+    }
+
+    /**
+     * Converts an amount of dollars to the nearest cent
+     *
+     * @param dollars The amount of dollars
+     * @return - The amount in cents
+     */
+    public static long toCents(double dollars) {
+        return Math.round(dollars * Money.CENTS);
+    }
+
+    /**
+     * Converts an amount of cents to dollars
+     *
+     * @param cents The amount in cents
+     * @return - The amount of dollars
+     */
+    public static double toDollars(long cents) {
+        return cents / (double) Money.CENTS;
+    }
+
+    /**
+     * Appends the amount as dollars with 2 decimal places, such as 69.95
+     *
+     * @param b Where the amount is appended
+     * @param cents The amount in cents
+     * @return - The StringBuilder appended to
+     */
+    public static StringBuilder append(StringBuilder b, long cents) {
+        try {
+            Money.write(b, cents);
+        } catch (IOException e) {
+            // StringBuilder never throws
+        }
+        return b;
+    }
+
+    /**
+     * Writes the amount as dollars with 2 decimal places, such as 69.95
+     *
+     * @param out Where the amount is written
+     * @param cents The amount in cents
+     * @throws IOException - Thrown if the amount couldnt be written
+     */
+    public static void write(Appendable out, long cents) throws IOException {
+        if (cents == Long.MIN_VALUE) {
+            // Cant be negated
+            out.append("-92233720368547758.08");
+            return;
+        }
+        if (cents < 0L) {
+            out.append('-');
+            cents = -cents;
+        }
+        long dollars = cents / Money.CENTS;
+        int rest = (int) (cents % Money.CENTS);
+        long power = 1L;
+        while (power <= dollars / 10L)
+            power *= 10L;
+        for (; power > 0L; power /= 10L)
+            out.append((char) ('0' + dollars / power % 10L));
+        out.append('.');
+        out.append((char) ('0' + rest / 10));
+        out.append((char) ('0' + rest % 10));
+    }
+
+}
@@ -0,0 +1,208 @@
+package hotel;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * File: Property.java
+ * Date: 01/06/2017
+ * Notes: One hotel of the group. Each property owns its own rooms, booking
+ * service (and so its own occupancy index), rate rules and dated
+ * reservations, with its own lock around the reservations, so a busy
+ * property never holds up the others. A room booked at the property is
+ * charged the rate from its own rules for the night it was booked.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class Property {
+
+    /**
+     * The name of the property
+     */
+    private final String name;
+
+    /**
+     * The highest room number at the property
+     */
+    private final int maxRoom;
+
+    /**
+     * Books and cancels the rooms of the property
+     */
+    private final BookingService service;
+
+    /**
+     * The pricing rules of the property
+     */
+    private final RateRules rules;
+
+    /**
+     * The dated reservations of the property
+     */
+    private final ReservationBook reservations;
+
+    /**
+     * Guards the reservations, searches share it and reserving takes it alone
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The rates from today, null until first needed
+     */
+    private volatile RateTable rateTable;
+
+    /**
+     * The main constructor for the Property Object
+     *
+     * @param name The name of the property
+     * @param maxRoom The highest room number at the property
+     * @param rules The pricing rules of the property
+     */
+    public Property(String name, int maxRoom, RateRules rules) {
+        this.name = name;
+        this.maxRoom = maxRoom;
+        this.rules = rules;
+        this.service = new BookingService(maxRoom, null, new RoomFactory() {
+            @Override
+            public HotelRoom create(boolean suite, int roomNo) {
+                HotelRoom room = suite ? new Suite(roomNo) : new HotelRoom(roomNo);
+                RateTable table = Property.this.getRateTable();
+                room.setRateCents(table.rate(roomNo, suite, table.getFirst()));
+                return room;
+            }
+        });
+        this.reservations = new ReservationBook(maxRoom);
+    }
+
+    /**
+     * Gets the name of the property
+     *
+     * @return - The name of the property
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the highest room number at the property
+     *
+     * @return - The highest room number
+     */
+    public int getMaxRoom() {
+        return this.maxRoom;
+    }
+
+    /**
+     * Gets the service that books and cancels the rooms of the property
+     *
+     * @return - The booking service
+     */
+    public BookingService getService() {
+        return this.service;
+    }
+
+    /**
+     * Gets the pricing rules of the property
+     *
+     * @return - The pricing rules
+     */
+    public RateRules getRules() {
+        return this.rules;
+    }
+
+    /**
+     * Gets the table of nightly rates from today, compiling the rules again the
+     * first time it is used each day and whenever a rule has been added
+     *
+     * @return - The table of nightly rates
+     */
+    public RateTable getRateTable() {
+        RateTable table = this.rateTable;
+        if (table == null || !table.isCurrent()) {
+            synchronized (this) {
+                table = this.rateTable;
+                if (table == null || !table.isCurrent()) {
+                    table = this.rules.compile(this.maxRoom, LocalDate.now(), HotelBookings.RATE_DAYS);
+                    this.rateTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Adds a reservation if the room is free for all of its nights
+     *
+     * @param reservation The reservation to be added
+     * @return - Whether or not the reservation was added
+     */
+    public boolean reserve(Reservation reservation) {
+        this.lock.writeLock().lock();
+        try {
+            return this.reservations.reserve(reservation);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether or not the room is free for every night of the range
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @param from The first night, days since 1970-01-01
+     * @param to The check out day, days since 1970-01-01
+     * @return - Whether or not the room is free
+     */
+    public boolean isAvailable(boolean suite, int roomNo, int from, int to) {
+        this.lock.readLock().lock();
+        try {
+            return this.reservations.isAvailable(suite, roomNo, from, to);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the cheapest rooms that are free for every night of the range
+     *
+     * @param suite Whether or not to look for suites
+     * @param from The first night, days since 1970-01-01
+     * @param to The check out day, days since 1970-01-01
+     * @param limit The most rooms to return
+     * @return - The free rooms ordered by the cost of the stay
+     */
+    public List<Availability> available(boolean suite, int from, int to, int limit) {
+        RateTable table = this.getRateTable();
+        List<Availability> found = new ArrayList<Availability>();
+        this.lock.readLock().lock();
+        try {
+            for (int roomNo = 1; roomNo <= this.maxRoom; roomNo++)
+                if (this.reservations.isAvailable(suite, roomNo, from, to))
+                    found.add(new Availability(this.name, roomNo, suite, table.quote(roomNo, suite, from, to)));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        Collections.sort(found, Availability.BY_TOTAL);
+        return found.size() > limit ? new ArrayList<Availability>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Gets the amount of dated reservations at the property
+     *
+     * @return - The amount of reservations
+     */
+    public long reservations() {
+        this.lock.readLock().lock();
+        try {
+            return this.reservations.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+}
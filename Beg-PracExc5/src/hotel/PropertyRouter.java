@@ -0,0 +1,136 @@
+package hotel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * File: PropertyRouter.java
+ * Date: 01/06/2017
+ * Notes: Sends each booking and reservation to the property it is for. A
+ * search across the group is run on every property at once on the common
+ * fork/join pool, and the cheapest rooms of each are merged into one list.
+ * Properties share nothing, so work on one never waits on another.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class PropertyRouter {
+
+    /**
+     * Every property, keyed by name
+     */
+    private final ConcurrentHashMap<String, Property> properties = new ConcurrentHashMap<String, Property>();
+
+    /**
+     * Adds a property to the group
+     *
+     * @param property The property to be added
+     * @return - Whether or not the property was added, false if its name is taken
+     */
+    public boolean add(Property property) {
+        return this.properties.putIfAbsent(property.getName(), property) == null;
+    }
+
+    /**
+     * Gets the property with the name
+     *
+     * @param name The name of the property
+     * @return - The property, or null if there isnt one with that name
+     */
+    public Property get(String name) {
+        return this.properties.get(name);
+    }
+
+    /**
+     * Gets the amount of properties in the group
+     *
+     * @return - The amount of properties
+     */
+    public int size() {
+        return this.properties.size();
+    }
+
+    /**
+     * Gets every property ordered by name
+     *
+     * @return - Every property
+     */
+    public List<Property> getProperties() {
+        List<String> names = new ArrayList<String>(this.properties.keySet());
+        Collections.sort(names);
+        List<Property> list = new ArrayList<Property>();
+        for (String name : names)
+            list.add(this.properties.get(name));
+        return list;
+    }
+
+    /**
+     * Books a room at a property
+     *
+     * @param name The name of the property
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - The booked room, or null if it was already booked
+     * @throws IOException - Thrown if the booking couldnt be journalled
+     */
+    public HotelRoom book(String name, boolean suite, int roomNo) throws IOException {
+        return this.require(name).getService().book(suite, roomNo);
+    }
+
+    /**
+     * Adds a reservation at a property if the room is free for all of its nights
+     *
+     * @param name The name of the property
+     * @param reservation The reservation to be added
+     * @return - Whether or not the reservation was added
+     */
+    public boolean reserve(String name, Reservation reservation) {
+        return this.require(name).reserve(reservation);
+    }
+
+    /**
+     * Finds the cheapest rooms free for every night of the range across every property
+     *
+     * @param suite Whether or not to look for suites
+     * @param from The first night, days since 1970-01-01
+     * @param to The check out day, days since 1970-01-01
+     * @param limit The most rooms to return
+     * @return - The free rooms ordered by the cost of the stay
+     */
+    public List<Availability> search(final boolean suite, final int from, final int to, final int limit) {
+        List<ForkJoinTask<List<Availability>>> tasks = new ArrayList<ForkJoinTask<List<Availability>>>();
+        for (final Property property : this.properties.values())
+            tasks.add(ForkJoinPool.commonPool().submit(new Callable<List<Availability>>() {
+                @Override
+                public List<Availability> call() {
+                    return property.available(suite, from, to, limit);
+                }
+            }));
+        List<Availability> found = new ArrayList<Availability>();
+        for (ForkJoinTask<List<Availability>> task : tasks)
+            found.addAll(task.join());
+        // Each property returns at most limit, so the merge only sorts properties * limit rooms
+        Collections.sort(found, Availability.BY_TOTAL);
+        return found.size() > limit ? new ArrayList<Availability>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Gets the property with the name
+     *
+     * @param name The name of the property
+     * @return - The property
+     */
+    private Property require(String name) {
+        Property property = this.properties.get(name);
+        if (property == null)
+            throw new IllegalArgumentException("There is no property named " + name);
+        return property;
+    }
+
+}
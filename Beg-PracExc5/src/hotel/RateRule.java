@@ -0,0 +1,25 @@
+package hotel;
+
+/**
+ * File: RateRule.java
+ * Date: 01/06/2017
+ * Notes: A single pricing rule, applied in turn to the nightly rate of a
+ * room on a date. Rates are worked out in whole cents.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public interface RateRule {
+
+    /**
+     * Adjusts the nightly rate of a room for a night
+     *
+     * @param roomNo The number of the room
+     * @param suite Whether or not the room is a suite
+     * @param day The night, as days since 1970-01-01
+     * @param cents The rate so far in cents
+     * @return - The adjusted rate in cents
+     */
+    long apply(int roomNo, boolean suite, int day, long cents);
+
+}
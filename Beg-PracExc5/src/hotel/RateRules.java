@@ -0,0 +1,155 @@
+package hotel;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * File: RateRules.java
+ * Date: 01/06/2017
+ * Notes: An ordered set of RateRules applied on top of the standard room
+ * rate (HotelRoom.BELOW or HotelRoom.ABOVE, plus Suite.INCREASE for suites).
+ * Evaluating every rule for every night is slow when quoting many stays, so
+ * a rule set can be compiled into a RateTable of every rate for a range of
+ * dates ahead of time. Every rule added changes the version of the rule set,
+ * so a table can tell when the rules it was compiled from have changed.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class RateRules {
+
+    /**
+     * The rules in the order they are applied
+     */
+    private final List<RateRule> rules = new CopyOnWriteArrayList<RateRule>();
+
+    /**
+     * The amount of rules that have been added
+     */
+    private volatile int version;
+
+    /**
+     * Adds a rule to the end of the rule set
+     *
+     * @param rule The rule to be added
+     * @return - This rule set
+     */
+    public synchronized RateRules add(RateRule rule) {
+        this.rules.add(rule);
+        this.version++;
+        return this;
+    }
+
+    /**
+     * Gets the version of the rule set, which changes whenever a rule is added
+     *
+     * @return - The version of the rule set
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the rate of a room for a night by applying every rule to the standard rate
+     *
+     * @param roomNo The number of the room
+     * @param suite Whether or not the room is a suite
+     * @param day The night, as days since 1970-01-01
+     * @return - The nightly rate in cents
+     */
+    public long rate(int roomNo, boolean suite, int day) {
+        long cents = RateRules.standard(roomNo, suite);
+        for (RateRule rule : this.rules)
+            cents = rule.apply(roomNo, suite, day, cents);
+        return cents;
+    }
+
+    /**
+     * Works out the rate of every room for every night in the range
+     *
+     * @param maxRoom The highest room number
+     * @param start The first night in the table
+     * @param days The amount of nights in the table
+     * @return - The table of rates
+     */
+    public RateTable compile(int maxRoom, LocalDate start, int days) {
+        // Read first so a rule added while compiling leaves the table out of date
+        int compiled = this.version;
+        int first = (int) start.toEpochDay();
+        long[] cents = new long[2 * maxRoom * days];
+        int i = 0;
+        for (int type = 0; type < 2; type++)
+            for (int roomNo = 1; roomNo <= maxRoom; roomNo++)
+                for (int d = 0; d < days; d++)
+                    cents[i++] = this.rate(roomNo, type == 1, first + d);
+        return new RateTable(this, compiled, maxRoom, first, days, cents);
+    }
+
+    /**
+     * Gets the standard rate of a room before any rules are applied
+     *
+     * @param roomNo The number of the room
+     * @param suite Whether or not the room is a suite
+     * @return - The standard rate in cents
+     */
+    public static long standard(int roomNo, boolean suite) {
+        long cents = roomNo < HotelRoom.RATE_CHANGE ? HotelRoom.BELOW_CENTS : HotelRoom.ABOVE_CENTS;
+        return suite ? cents + Suite.INCREASE_CENTS : cents;
+    }
+
+    /**
+     * Creates a rule that multiplies the rate of every night between two dates
+     *
+     * @param from The first night of the season
+     * @param to The last night of the season
+     * @param multiplier The amount the rate is multiplied by
+     * @return - The seasonal rule
+     */
+    public static RateRule seasonal(LocalDate from, LocalDate to, final double multiplier) {
+        final int first = (int) from.toEpochDay(), last = (int) to.toEpochDay();
+        return new RateRule() {
+            @Override
+            public long apply(int roomNo, boolean suite, int day, long cents) {
+                return day >= first && day <= last ? Math.round(cents * multiplier) : cents;
+            }
+        };
+    }
+
+    /**
+     * Creates a rule that multiplies the rate of every night falling on a day of the week
+     *
+     * @param weekday The day of the week
+     * @param multiplier The amount the rate is multiplied by
+     * @return - The weekday rule
+     */
+    public static RateRule weekday(final DayOfWeek weekday, final double multiplier) {
+        return new RateRule() {
+            @Override
+            public long apply(int roomNo, boolean suite, int day, long cents) {
+                // 1970-01-01 was a Thursday
+                int dow = Math.floorMod(day + 3, 7) + 1;
+                return dow == weekday.getValue() ? Math.round(cents * multiplier) : cents;
+            }
+        };
+    }
+
+    /**
+     * Creates a rule that adds a surcharge to rooms on or above a floor,
+     * where the floor is the room number divided by 100
+     *
+     * @param floor The lowest floor the surcharge applies to
+     * @param surcharge The amount added in cents
+     * @return - The floor rule
+     */
+    public static RateRule floor(final int floor, final long surcharge) {
+        return new RateRule() {
+            @Override
+            public long apply(int roomNo, boolean suite, int day, long cents) {
+                return roomNo / 100 >= floor ? cents + surcharge : cents;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,153 @@
+package hotel;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * File: RateTable.java
+ * Date: 01/06/2017
+ * Notes: Every nightly rate of a compiled RateRules, for each room and each
+ * night in a range of dates, stored in cents in a single long array. Quoting
+ * a stay adds up the rates of its nights straight from the array, and only
+ * nights outside the range fall back to applying the rules. A table compiled
+ * from tonight is current until midnight, or until a rule is added.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class RateTable {
+
+    /**
+     * The rules the table was compiled from
+     */
+    private final RateRules rules;
+
+    /**
+     * The version of the rules the table was compiled from
+     */
+    private final int version;
+
+    /**
+     * The highest room number in the table
+     */
+    private final int maxRoom;
+
+    /**
+     * The first night in the table, days since 1970-01-01, and the amount of nights
+     */
+    private final int first, days;
+
+    /**
+     * The rate of every night, ordered by room type, then room number, then night
+     */
+    private final long[] cents;
+
+    /**
+     * The time the night after the first night starts, in milliseconds since 1970-01-01
+     */
+    private final long expires;
+
+    /**
+     * The main constructor for the RateTable Object
+     *
+     * @param rules The rules the table was compiled from
+     * @param version The version of the rules the table was compiled from
+     * @param maxRoom The highest room number in the table
+     * @param first The first night in the table, days since 1970-01-01
+     * @param days The amount of nights in the table
+     * @param cents The rate of every night
+     */
+    RateTable(RateRules rules, int version, int maxRoom, int first, int days, long[] cents) {
+        this.rules = rules;
+        this.version = version;
+        this.maxRoom = maxRoom;
+        this.first = first;
+        this.days = days;
+        this.cents = cents;
+        this.expires = LocalDate.ofEpochDay(first + 1L).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Gets the first night in the table
+     *
+     * @return - The first night, days since 1970-01-01
+     */
+    public int getFirst() {
+        return this.first;
+    }
+
+    /**
+     * Checks whether or not the table still starts from tonight and the rules
+     * havent changed since it was compiled
+     *
+     * @return - Whether or not the table is up to date
+     */
+    public boolean isCurrent() {
+        return System.currentTimeMillis() < this.expires && this.version == this.rules.getVersion();
+    }
+
+    /**
+     * Gets the rate of a room for a night
+     *
+     * @param roomNo The number of the room
+     * @param suite Whether or not the room is a suite
+     * @param day The night, as days since 1970-01-01
+     * @return - The nightly rate in cents
+     */
+    public long rate(int roomNo, boolean suite, int day) {
+        int offset = day - this.first;
+        if (roomNo < 1 || roomNo > this.maxRoom || offset < 0 || offset >= this.days)
+            return this.rules.rate(roomNo, suite, day);
+        return this.cents[this.row(roomNo, suite) + offset];
+    }
+
+    /**
+     * Gets the total cost of a stay
+     *
+     * @param roomNo The number of the room
+     * @param suite Whether or not the room is a suite
+     * @param checkIn The first night, days since 1970-01-01
+     * @param checkOut The check out day, days since 1970-01-01
+     * @return - The total cost in cents
+     */
+    public long quote(int roomNo, boolean suite, int checkIn, int checkOut) {
+        long total = 0L;
+        int day = checkIn;
+        // Nights before the table starts
+        for (; day < checkOut && day < this.first; day++)
+            total += this.rules.rate(roomNo, suite, day);
+        if (roomNo >= 1 && roomNo <= this.maxRoom) {
+            int row = this.row(roomNo, suite);
+            int end = Math.min(checkOut, this.first + this.days);
+            for (; day < end; day++)
+                total += this.cents[row + day - this.first];
+        }
+        // Nights after the table ends, or every night if the room isnt in the table
+        for (; day < checkOut; day++)
+            total += this.rules.rate(roomNo, suite, day);
+        return total;
+    }
+
+    /**
+     * Gets the total cost of a reservation
+     *
+     * @param reservation The reservation
+     * @return - The total cost in cents
+     */
+    public long quote(Reservation reservation) {
+        return this.quote(reservation.getRoomNo(), reservation.isSuite(),
+                reservation.getCheckIn(), reservation.getCheckOut());
+    }
+
+    /**
+     * Gets the index of the first night of a room in the array
+     *
+     * @param roomNo The number of the room
+     * @param suite Whether or not the room is a suite
+     * @return - The index of the first night
+     */
+    private int row(int roomNo, boolean suite) {
+        return ((suite ? this.maxRoom : 0) + roomNo - 1) * this.days;
+    }
+
+}
@@ -0,0 +1,129 @@
+package hotel;
+
+import java.time.LocalDate;
+
+/**
+ * File: Reservation.java
+ * Date: 01/06/2017
+ * Notes: A stay in a room between two dates. The check in night is included
+ * and the check out date is not, so back to back stays dont overlap.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class Reservation {
+
+    /**
+     * The number of the room being reserved
+     */
+    private final int roomNo;
+
+    /**
+     * Whether or not the room being reserved is a suite
+     */
+    private final boolean suite;
+
+    /**
+     * The check in and check out dates as days since 1970-01-01
+     */
+    private final int checkIn, checkOut;
+
+    /**
+     * The main constructor for the Reservation Object
+     *
+     * @param roomNo The number of the room being reserved
+     * @param suite Whether or not the room is a suite
+     * @param checkIn The day the guest checks in, days since 1970-01-01
+     * @param checkOut The day the guest checks out, days since 1970-01-01
+     */
+    public Reservation(int roomNo, boolean suite, int checkIn, int checkOut) {
+        if (checkOut <= checkIn)
+            throw new IllegalArgumentException("Check out must be after check in");
+        this.roomNo = roomNo;
+        this.suite = suite;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+
+    /**
+     * Constructs the Reservation Object from dates
+     *
+     * @param roomNo The number of the room being reserved
+     * @param suite Whether or not the room is a suite
+     * @param checkIn The date the guest checks in
+     * @param checkOut The date the guest checks out
+     */
+    public Reservation(int roomNo, boolean suite, LocalDate checkIn, LocalDate checkOut) {
+        this(roomNo, suite, (int) checkIn.toEpochDay(), (int) checkOut.toEpochDay());
+    }
+
+    /**
+     * Gets the room number
+     *
+     * @return - The room number
+     */
+    public int getRoomNo() {
+        return this.roomNo;
+    }
+
+    /**
+     * Gets whether or not the room is a suite
+     *
+     * @return - Whether or not the room is a suite
+     */
+    public boolean isSuite() {
+        return this.suite;
+    }
+
+    /**
+     * Gets the check in day
+     *
+     * @return - The check in day as days since 1970-01-01
+     */
+    public int getCheckIn() {
+        return this.checkIn;
+    }
+
+    /**
+     * Gets the check out day
+     *
+     * @return - The check out day as days since 1970-01-01
+     */
+    public int getCheckOut() {
+        return this.checkOut;
+    }
+
+    /**
+     * Gets the amount of nights stayed
+     *
+     * @return - The amount of nights
+     */
+    public int getNights() {
+        return this.checkOut - this.checkIn;
+    }
+
+    /**
+     * Checks whether or not the stay shares a night with the range
+     *
+     * @param from The first night of the range, days since 1970-01-01
+     * @param to The day after the last night of the range, days since 1970-01-01
+     * @return - Whether or not the stay overlaps the range
+     */
+    public boolean overlaps(int from, int to) {
+        return this.checkIn < to && from < this.checkOut;
+    }
+
+    /**
+     * Gets the user-friendly String representation of the Reservation Object
+     *
+     * @return - The String representation of the Reservation Object
+     */
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder(this.suite ? "\nSuite No. " : "\nRoom No. ");
+        b.append(this.roomNo).append("\nCheck in ").append(LocalDate.ofEpochDay(this.checkIn));
+        b.append("\nCheck out ").append(LocalDate.ofEpochDay(this.checkOut));
+        return b.toString();
+    }
+
+}
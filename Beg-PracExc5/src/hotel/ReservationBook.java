@@ -0,0 +1,114 @@
+package hotel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: ReservationBook.java
+ * Date: 01/06/2017
+ * Notes: Holds the dated reservations for every room with an interval tree
+ * per room, so checking whether a room is free for some dates only looks at
+ * the stays of that room.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class ReservationBook {
+
+    /**
+     * The highest room number that can be reserved
+     */
+    private final int maxRoom;
+
+    /**
+     * The reservations for each normal room and suite, indexed by room number
+     */
+    private final IntervalTree[] normal, suites;
+
+    /**
+     * The amount of reservations in the book
+     */
+    private long count;
+
+    /**
+     * The main constructor for the ReservationBook Object
+     *
+     * @param maxRoom The highest room number that can be reserved
+     */
+    public ReservationBook(int maxRoom) {
+        this.maxRoom = maxRoom;
+        this.normal = new IntervalTree[maxRoom + 1];
+        this.suites = new IntervalTree[maxRoom + 1];
+    }
+
+    /**
+     * Adds a reservation if the room is free for all of its nights
+     *
+     * @param reservation The reservation to be added
+     * @return - Whether or not the reservation was added
+     */
+    public boolean reserve(Reservation reservation) {
+        int roomNo = reservation.getRoomNo();
+        if (roomNo < 1 || roomNo > this.maxRoom)
+            throw new IllegalArgumentException("Room number must be between 1 and " + this.maxRoom);
+        IntervalTree[] trees = reservation.isSuite() ? this.suites : this.normal;
+        if (trees[roomNo] == null)
+            trees[roomNo] = new IntervalTree();
+        else if (trees[roomNo].overlaps(reservation.getCheckIn(), reservation.getCheckOut()))
+            return false;
+        trees[roomNo].insert(reservation);
+        this.count++;
+        return true;
+    }
+
+    /**
+     * Checks whether or not the room is free for every night of the range
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @param from The first night, days since 1970-01-01
+     * @param to The check out day, days since 1970-01-01
+     * @return - Whether or not the room is free
+     */
+    public boolean isAvailable(boolean suite, int roomNo, int from, int to) {
+        IntervalTree tree = this.tree(suite, roomNo);
+        return tree == null || !tree.overlaps(from, to);
+    }
+
+    /**
+     * Gets the reservations of the room that share a night with the range
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @param from The first night, days since 1970-01-01
+     * @param to The check out day, days since 1970-01-01
+     * @return - The overlapping reservations ordered by check in
+     */
+    public List<Reservation> overlapping(boolean suite, int roomNo, int from, int to) {
+        IntervalTree tree = this.tree(suite, roomNo);
+        return tree == null ? new ArrayList<Reservation>() : tree.overlapping(from, to);
+    }
+
+    /**
+     * Gets the amount of reservations in the book
+     *
+     * @return - The amount of reservations
+     */
+    public long size() {
+        return this.count;
+    }
+
+    /**
+     * Gets the tree of the room
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - The tree of the room, or null if it has never been reserved
+     */
+    private IntervalTree tree(boolean suite, int roomNo) {
+        if (roomNo < 1 || roomNo > this.maxRoom)
+            return null;
+        return (suite ? this.suites : this.normal)[roomNo];
+    }
+
+}
@@ -0,0 +1,245 @@
+package hotel;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * File: RevenueReport.java
+ * Date: 01/06/2017
+ * Notes: Adds up the nightly revenue and occupancy of the booked rooms,
+ * grouped by rate band (rooms below or from HotelRoom.RATE_CHANGE) and room
+ * type. The rooms are split into ranges that are totalled on a fork/join
+ * pool and merged, and the report is written line by line to a file
+ * followed by every booked room.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class RevenueReport {
+
+    /**
+     * The location the report is written to
+     */
+    public static final String OUTPUT = "RevenueReport.txt";
+
+    /**
+     * The amount of rooms below which a range is totalled without splitting it
+     * further. A full hotel has a normal room and a suite for every room
+     * number, so it is split into 8 ranges
+     */
+    private static final int THRESHOLD = HotelBookings.MAX_ROOM_NUMBER / 4;
+
+    /**
+     * The groups the totals are kept for, indexed by band * 2 + type
+     */
+    private static final String[] GROUPS = {"Below rate change, normal rooms", "Below rate change, suites",
+                                            "Above rate change, normal rooms", "Above rate change, suites"};
+
+    /**
+     * The amount of rooms booked in each group
+     */
+    private final long[] rooms = new long[RevenueReport.GROUPS.length];
+
+    /**
+     * The nightly revenue of each group in cents
+     */
+    private final long[] revenue = new long[RevenueReport.GROUPS.length];
+
+    /**
+     * The booked rooms the totals were taken from, listed at the end of the report
+     */
+    private HotelRoom[] booked = new HotelRoom[0];
+
+    /**
+     * Totals the booked rooms on the common fork/join pool
+     *
+     * @param booked The booked rooms
+     * @return - The totals of the booked rooms
+     */
+    public static RevenueReport of(List<HotelRoom> booked) {
+        HotelRoom[] snapshot = booked.toArray(new HotelRoom[booked.size()]);
+        RevenueReport report = ForkJoinPool.commonPool().invoke(new Range(snapshot, 0, snapshot.length));
+        report.booked = snapshot;
+        return report;
+    }
+
+    /**
+     * Gets the group index of a room
+     *
+     * @param room The room
+     * @return - The group index of the room
+     */
+    private static int group(HotelRoom room) {
+        int band = room.getRoomNo() < HotelRoom.RATE_CHANGE ? 0 : 1;
+        return band * 2 + (room instanceof Suite ? 1 : 0);
+    }
+
+    /**
+     * Gets the amount of rooms booked
+     *
+     * @return - The amount of rooms booked
+     */
+    public long getRooms() {
+        long total = 0L;
+        for (long count : this.rooms)
+            total += count;
+        return total;
+    }
+
+    /**
+     * Gets the total nightly revenue of every booked room
+     *
+     * @return - The total nightly revenue
+     */
+    public double getRevenue() {
+        return Money.toDollars(this.getRevenueCents());
+    }
+
+    /**
+     * Gets the total nightly revenue of every booked room in cents
+     *
+     * @return - The total nightly revenue in cents
+     */
+    public long getRevenueCents() {
+        long total = 0L;
+        for (long amount : this.revenue)
+            total += amount;
+        return total;
+    }
+
+    /**
+     * Writes the report to the file
+     *
+     * @param path The location of the file
+     * @throws IOException - Thrown if the file couldnt be written
+     */
+    public void write(String path) throws IOException {
+        Writer w = null;
+        try {
+            w = new BufferedWriter(new FileWriter(path));
+            this.write(w);
+        } finally {
+            if (w != null)
+                w.close();
+        }
+    }
+
+    /**
+     * Writes the report one line at a time
+     *
+     * @param w Where the report is written
+     * @throws IOException - Thrown if the report couldnt be written
+     */
+    public void write(Writer w) throws IOException {
+        long total = this.getRooms();
+        int capacity = HotelBookings.MAX_ROOM_NUMBER * 2;
+        w.write("NIGHTLY REVENUE REPORT\n\n");
+        w.write("Rooms booked " + total + " of " + capacity + " (");
+        w.write(RevenueReport.round(total * 100D / capacity) + "% occupancy)\n");
+        w.write("Nightly revenue $");
+        Money.write(w, this.getRevenueCents());
+        w.write("\n\nRate bands: below room " + HotelRoom.RATE_CHANGE + " $");
+        Money.write(w, HotelRoom.BELOW_CENTS);
+        w.write(", from room " + HotelRoom.RATE_CHANGE + " $");
+        Money.write(w, HotelRoom.ABOVE_CENTS);
+        w.write(", suites add $");
+        Money.write(w, Suite.INCREASE_CENTS);
+        w.write("\n\n");
+        for (int g = 0; g < RevenueReport.GROUPS.length; g++) {
+            w.write(RevenueReport.GROUPS[g]);
+            w.write(": " + this.rooms[g] + " booked, $");
+            Money.write(w, this.revenue[g]);
+            w.write(" nightly\n");
+        }
+        w.write("\n--Rooms Booked out--\n");
+        for (HotelRoom room : this.booked) {
+            w.write(room instanceof Suite ? "Suite No. " : "Room No. ");
+            w.write(Integer.toString(room.getRoomNo()));
+            w.write(" $");
+            Money.write(w, room.getRateCents());
+            w.write('\n');
+        }
+    }
+
+    /**
+     * Adds the totals of another report into this one
+     *
+     * @param other The report to be added
+     * @return - This report
+     */
+    private RevenueReport merge(RevenueReport other) {
+        for (int g = 0; g < this.rooms.length; g++) {
+            this.rooms[g] += other.rooms[g];
+            this.revenue[g] += other.revenue[g];
+        }
+        return this;
+    }
+
+    /**
+     * Rounds a number to 2 decimal places
+     *
+     * @param num The number to be rounded
+     * @return - The rounded number
+     */
+    private static double round(double num) {
+        return Math.round(num * 100D) / 100D;
+    }
+
+    /**
+     * Totals a range of the booked rooms, splitting it in half until it is small enough
+     */
+    private static class Range extends RecursiveTask<RevenueReport> {
+
+        /**
+         * The version of the serialized form, as fork/join tasks are Serializable
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The booked rooms
+         */
+        private final HotelRoom[] rooms;
+
+        /**
+         * The first room (inclusive) and last room (exclusive) of the range
+         */
+        private final int from, to;
+
+        /**
+         * The main constructor for the Range Object
+         *
+         * @param rooms The booked rooms
+         * @param from The first room of the range
+         * @param to The index after the last room of the range
+         */
+        private Range(HotelRoom[] rooms, int from, int to) {
+            this.rooms = rooms;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RevenueReport compute() {
+            if (this.to - this.from <= RevenueReport.THRESHOLD) {
+                RevenueReport report = new RevenueReport();
+                for (int i = this.from; i < this.to; i++) {
+                    int g = RevenueReport.group(this.rooms[i]);
+                    report.rooms[g]++;
+                    report.revenue[g] += this.rooms[i].getRateCents();
+                }
+                return report;
+            }
+            int mid = (this.from + this.to) >>> 1;
+            Range left = new Range(this.rooms, this.from, mid);
+            left.fork();
+            RevenueReport right = new Range(this.rooms, mid, this.to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package hotel;
+
+/**
+ * File: RoomFactory.java
+ * Date: 01/06/2017
+ * Notes: Creates the HotelRoom or Suite Object of a booking, which decides
+ * the nightly rate the room is charged.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public interface RoomFactory {
+
+    /**
+     * Creates the room Object of a booking
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - The room that was booked
+     */
+    HotelRoom create(boolean suite, int roomNo);
+
+}
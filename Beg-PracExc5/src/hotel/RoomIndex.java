@@ -0,0 +1,208 @@
+package hotel;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * File: RoomIndex.java
+ * Date: 01/06/2017
+ * Notes: Keeps which rooms are booked as bits in arrays of long words, one
+ * array for normal rooms and one for suites, where bit n is room number n.
+ * Checking a room is a single bit test and finding the next free room scans
+ * 64 rooms at a time. Booking and releasing a room compare-and-set its word,
+ * so many threads can book rooms at once and only one of them can claim each
+ * room. rebuild() must not be called while other threads are using the index.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class RoomIndex {
+
+    /**
+     * The highest room number the index covers
+     */
+    private final int maxRoom;
+
+    /**
+     * The booked bits for normal rooms and suites
+     */
+    private final AtomicLongArray normal, suites;
+
+    /**
+     * The main constructor for the RoomIndex Object
+     *
+     * @param maxRoom The highest room number the index covers, starting from 1
+     */
+    public RoomIndex(int maxRoom) {
+        this.maxRoom = maxRoom;
+        int words = (maxRoom >> 6) + 1; // Bit 0 is never used as rooms start at 1
+        this.normal = new AtomicLongArray(words);
+        this.suites = new AtomicLongArray(words);
+    }
+
+    /**
+     * Checks whether or not the room has been booked
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - Whether or not the room has been booked, false if it is out of range
+     */
+    public boolean isBooked(boolean suite, int roomNo) {
+        if (roomNo < 1 || roomNo > this.maxRoom)
+            return false;
+        return ((suite ? this.suites : this.normal).get(roomNo >> 6) & (1L << roomNo)) != 0L;
+    }
+
+    /**
+     * Marks the room as booked if it is free
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - Whether or not the room was free before it was marked
+     */
+    public boolean book(boolean suite, int roomNo) {
+        this.checkRange(roomNo);
+        AtomicLongArray words = suite ? this.suites : this.normal;
+        int w = roomNo >> 6;
+        long bit = 1L << roomNo;
+        while (true) {
+            long old = words.get(w);
+            if ((old & bit) != 0L)
+                return false;
+            if (words.compareAndSet(w, old, old | bit))
+                return true;
+        }
+    }
+
+    /**
+     * Marks the room as free
+     *
+     * @param suite Whether or not the room is a suite
+     * @param roomNo The number of the room
+     * @return - Whether or not the room was booked before it was marked
+     */
+    public boolean release(boolean suite, int roomNo) {
+        this.checkRange(roomNo);
+        AtomicLongArray words = suite ? this.suites : this.normal;
+        int w = roomNo >> 6;
+        long bit = 1L << roomNo;
+        while (true) {
+            long old = words.get(w);
+            if ((old & bit) == 0L)
+                return false;
+            if (words.compareAndSet(w, old, old & ~bit))
+                return true;
+        }
+    }
+
+    /**
+     * Finds the lowest free room number at or after the specified room
+     *
+     * @param suite Whether or not to look for a suite
+     * @param from The room number to start looking from
+     * @return - The free room number, or -1 if every room from there is booked
+     */
+    public int nextFree(boolean suite, int from) {
+        if (from < 1)
+            from = 1;
+        if (from > this.maxRoom)
+            return -1;
+        AtomicLongArray words = suite ? this.suites : this.normal;
+        int w = from >> 6;
+        // Treat the rooms before the start as booked so they are skipped
+        long free = ~words.get(w) & (-1L << from);
+        while (free == 0L) {
+            if (++w == words.length())
+                return -1;
+            free = ~words.get(w);
+        }
+        int roomNo = (w << 6) + Long.numberOfTrailingZeros(free);
+        return roomNo <= this.maxRoom ? roomNo : -1;
+    }
+
+    /**
+     * Finds the lowest free room numbers within a range, scanning 64 rooms at a time
+     *
+     * @param suite Whether or not to look for suites
+     * @param from The lowest room number to include
+     * @param to The highest room number to include
+     * @param n The most rooms to find
+     * @return - The free room numbers in ascending order, at most n of them
+     */
+    public int[] findFree(boolean suite, int from, int to, int n) {
+        if (from < 1)
+            from = 1;
+        if (to > this.maxRoom)
+            to = this.maxRoom;
+        int[] found = new int[Math.max(0, Math.min(n, to - from + 1))];
+        if (found.length == 0)
+            return found;
+        AtomicLongArray words = suite ? this.suites : this.normal;
+        int count = 0;
+        int w = from >> 6;
+        long free = ~words.get(w) & (-1L << from);
+        while (true) {
+            while (free != 0L) {
+                int roomNo = (w << 6) + Long.numberOfTrailingZeros(free);
+                if (roomNo > to)
+                    return Arrays.copyOf(found, count);
+                found[count++] = roomNo;
+                if (count == found.length)
+                    return found;
+                free &= free - 1L; // Clear the lowest free bit
+            }
+            if (++w == words.length() || (w << 6) > to)
+                return Arrays.copyOf(found, count);
+            free = ~words.get(w);
+        }
+    }
+
+    /**
+     * Gets the amount of rooms booked
+     *
+     * @return - The amount of rooms booked
+     */
+    public int size() {
+        int count = 0;
+        for (int w = 0; w < this.normal.length(); w++)
+            count += Long.bitCount(this.normal.get(w)) + Long.bitCount(this.suites.get(w));
+        return count;
+    }
+
+    /**
+     * Gets the highest room number the index covers
+     *
+     * @return - The highest room number
+     */
+    public int getMaxRoom() {
+        return this.maxRoom;
+    }
+
+    /**
+     * Clears the index and marks every room in the list as booked, ignoring
+     * any room numbers the index doesnt cover
+     *
+     * @param rooms The booked rooms
+     */
+    public void rebuild(List<HotelRoom> rooms) {
+        for (int w = 0; w < this.normal.length(); w++) {
+            this.normal.set(w, 0L);
+            this.suites.set(w, 0L);
+        }
+        for (HotelRoom r : rooms)
+            if (r.getRoomNo() >= 1 && r.getRoomNo() <= this.maxRoom)
+                this.book(r instanceof Suite, r.getRoomNo());
+    }
+
+    /**
+     * Makes sure the room number is covered by the index
+     *
+     * @param roomNo The number of the room
+     */
+    private void checkRange(int roomNo) {
+        if (roomNo < 1 || roomNo > this.maxRoom)
+            throw new IllegalArgumentException("Room number must be between 1 and " + this.maxRoom);
+    }
+
+}
@@ -0,0 +1,84 @@
+package hotel;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.RandomAccess;
+
+/**
+ * File: RoomList.java
+ * Date: 01/06/2017
+ * Notes: The list of booked rooms, which counts every change made to it so an
+ * index built from the list can tell when it is out of date. Unlike the size
+ * of the list the count still changes when a room is replaced, or removed
+ * and another added. Every change to a sub list or through an iterator goes
+ * through the methods below so it is counted as well.
+ *
+ * @version 1.0.0
+ * @author Lee Tzilantonis
+ */
+public class RoomList extends AbstractList<HotelRoom> implements RandomAccess {
+
+    /**
+     * The rooms in the list
+     */
+    private final ArrayList<HotelRoom> rooms = new ArrayList<HotelRoom>();
+
+    /**
+     * The amount of changes made to the list
+     */
+    private long changes;
+
+    /**
+     * Gets the amount of changes made to the list since it was created
+     *
+     * @return - The amount of changes made to the list
+     */
+    public long getChanges() {
+        return this.changes;
+    }
+
+    @Override
+    public HotelRoom get(int index) {
+        return this.rooms.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.rooms.size();
+    }
+
+    @Override
+    public HotelRoom set(int index, HotelRoom room) {
+        HotelRoom old = this.rooms.set(index, room);
+        this.changes++;
+        return old;
+    }
+
+    @Override
+    public void add(int index, HotelRoom room) {
+        this.rooms.add(index, room);
+        this.changes++;
+        this.modCount++;
+    }
+
+    @Override
+    public HotelRoom remove(int index) {
+        HotelRoom old = this.rooms.remove(index);
+        this.changes++;
+        this.modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.removeRange(0, this.rooms.size());
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        this.rooms.subList(from, to).clear();
+        this.changes++;
+        this.modCount++;
+    }
+
+}
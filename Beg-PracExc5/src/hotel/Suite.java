@@ -8,10 +8,15 @@ package hotel;
  */
 public class Suite extends HotelRoom {
 
+    /**
+     * Indicates the amount in cents to increase the HotelRoom fee by
+     */
+    public static final long INCREASE_CENTS = 4000L;
+
     /**
      * Indicates the amount to increase the HotelRoom fee by
      */
-    public static final double INCREASE = 40D;
+    public static final double INCREASE = Suite.INCREASE_CENTS / 100D;
 
     /**
      * The main constructor for the Suite Object
@@ -20,7 +25,7 @@ public class Suite extends HotelRoom {
      */
     public Suite(int roomNo) {
         super(roomNo);
-        super.increaseRate(Suite.INCREASE);
+        super.increaseRateCents(Suite.INCREASE_CENTS);
     }
 
     /**
@@ -31,7 +36,8 @@ public class Suite extends HotelRoom {
     @Override
     public String toString() {
         StringBuilder b = new StringBuilder(super.toString());
-        b.append("\nSuite Surcharge (Incl.) $").append(Suite.INCREASE);
+        b.append("\nSuite Surcharge (Incl.) $");
+        Money.append(b, Suite.INCREASE_CENTS);
         return b.toString();
     }
 